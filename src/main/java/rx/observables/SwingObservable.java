@@ -18,6 +18,7 @@ package rx.observables;
 import java.awt.*;
 import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
+import java.util.List;
 import java.util.Set;
 
 import javax.swing.*;
@@ -28,7 +29,10 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.text.Document;
 
 import rx.Observable;
+import rx.Scheduler;
 import rx.functions.Func1;
+import rx.schedulers.SwingScheduler;
+import rx.swing.operators.ComputeThenRender;
 import rx.swing.sources.*;
 
 /**
@@ -85,6 +89,21 @@ public enum SwingObservable { ; // no instances
         return KeyEventSource.currentlyPressedKeysOf(component);
     }
 
+    /**
+     * Creates an observable that emits a snapshot of the currently pressed keys each time they change.
+     * <p>
+     * Unlike {@link #fromPressedKeys(Component)}, the keys are kept in a bitset instead of a set of boxed key
+     * codes, and nothing is emitted or allocated for key events that do not change the pressed keys, such as
+     * auto-repeated key presses.
+     *
+     * @param component
+     *            The component to register the observable for.
+     * @return Observable of currently pressed keys.
+     */
+    public static Observable<PressedKeys> fromPressedKeyCodes(Component component) {
+        return KeyEventSource.pressedKeyCodesOf(component);
+    }
+
     /**
      * Creates an observable corresponding to raw mouse events (excluding mouse motion events).
      * 
@@ -106,6 +125,23 @@ public enum SwingObservable { ; // no instances
     public static Observable<MouseEvent> fromMouseMotionEvents(Component component) {
         return MouseEventSource.fromMouseMotionEventsOf(component);
     }
+
+    /**
+     * Creates an observable of mouse motion events that merges the events which arrive while the subscriber
+     * cannot take them, e.g. because it is busy repainting on another thread, into the latest event and a
+     * count. Unlike the raw events, this observable honours backpressure: it never emits more than was
+     * requested, so slow consumers neither fail with a {@link rx.exceptions.MissingBackpressureException} nor
+     * buffer without bounds.
+     *
+     * @param component
+     *            The component to register the observable for.
+     * @param policy
+     *            when to merge events, see {@link CoalescingPolicy}
+     * @return Observable of the latest mouse motion event with the number of events merged into it.
+     */
+    public static Observable<CoalescedMouseEvent> fromMouseMotionEvents(Component component, CoalescingPolicy policy) {
+        return MouseEventSource.fromMouseMotionEventsOf(component, policy);
+    }
     
     /**
      * Creates an observable corresponding to relative mouse motion.
@@ -117,6 +153,25 @@ public enum SwingObservable { ; // no instances
         return MouseEventSource.fromRelativeMouseMotion(component);
     }
 
+    /**
+     * Creates an observable corresponding to relative mouse motion, optionally without allocating a point per
+     * event.
+     * <p>
+     * With <code>reuseDelta</code> set, every subscriber receives the same mutable point for every event, which
+     * is only valid during the call to <code>onNext</code>: it must neither be kept nor handed to another
+     * thread, e.g. with <code>observeOn</code> or <code>buffer</code>. Copy it if it is needed for longer.
+     * This avoids garbage when handling high-frequency mouse drags.
+     *
+     * @param component
+     *            The component to register the observable for.
+     * @param reuseDelta
+     *            whether to reuse a single point per subscriber for all emitted deltas
+     * @return A point whose x and y coordinate represent the relative horizontal and vertical mouse motion.
+     */
+    public static Observable<Point> fromRelativeMouseMotion(Component component, boolean reuseDelta) {
+        return MouseEventSource.fromRelativeMouseMotion(component, reuseDelta);
+    }
+
     /**
      * Creates an observable corresponding to raw mouse wheel events.
      *
@@ -161,6 +216,25 @@ public enum SwingObservable { ; // no instances
         return ComponentEventSource.fromResizing(component);
     }
 
+    /**
+     * Subscribes to an observable only while the given component is showing on screen, e.g. to a live feed that
+     * is rendered by the component. When the component, or one of its ancestors, is hidden, e.g. because its tab
+     * was deselected, the subscription to the feed is unsubscribed; when it is shown again, the latest value
+     * that was received is emitted right away, followed by the values of a new subscription to the feed.
+     * <p>
+     * The returned observable does not complete when the component is disposed, see
+     * {@link #bindToLifecycle(Component)} for that.
+     *
+     * @param component
+     *            The component that renders the values.
+     * @param upstream
+     *            The observable to subscribe to while the component is showing.
+     * @return Observable emitting the values of the upstream observable while the component is showing.
+     */
+    public static <T> Observable<T> whileVisible(Component component, Observable<T> upstream) {
+        return ComponentEventSource.whileShowing(component, upstream);
+    }
+
     /**
      * Creates an observable corresponding to item events.
      * 
@@ -266,6 +340,21 @@ public enum SwingObservable { ; // no instances
         return DocumentEventSource.fromDocumentEventsOf(document);
     }
 
+    /**
+     * Creates an observable of the insertions into and removals from the text of a document.
+     * <p>
+     * Unlike a consumer of the document events that reads the whole text after every event, an edit only
+     * carries the inserted text, which is copied out of the document on the Swing UI thread when the event
+     * occurs. Changes of attributes only are not emitted. A {@link DocumentLineIndex} can be kept up to date with
+     * the edits.
+     *
+     * @param document The document to register the observable for.
+     * @return Observable of document edits.
+     */
+    public static Observable<DocumentEdit> fromDocumentEdits(Document document) {
+        return DocumentEventSource.fromDocumentEditsOf(document);
+    }
+
     /**
      * Creates an observable corresponding to document events restricted to a
      * set of given event types.
@@ -459,14 +548,90 @@ public enum SwingObservable { ; // no instances
         return HierarchyEventSource.fromHierarchyBoundsEventsOf(component);
     }
 
+    /**
+     * Binds a stream to the lifecycle of a component: the stream completes when the component becomes
+     * undisplayable, e.g. because its window was disposed, so the subscriptions of a closed dialog do not
+     * outlive it. E.g.
+     * <pre>
+     * SwingObservable.fromMouseEvents(canvas)
+     *         .compose(SwingObservable.&lt;MouseEvent&gt;bindToLifecycle(dialog))
+     *         .subscribe(...);
+     * </pre>
+     *
+     * @param component
+     *            the component whose lifecycle the stream is bound to
+     * @return a transformer that completes the stream when the component becomes undisplayable
+     */
+    public static <T> Observable.Transformer<T, T> bindToLifecycle(Component component) {
+        return bindToLifecycle(component, LifecycleBinding.UNTIL_UNDISPLAYABLE);
+    }
+
+    /**
+     * Binds a stream to the lifecycle of a component: completes it when the component becomes undisplayable or
+     * stops showing, or pauses it while the component is not showing, see {@link LifecycleBinding}. Pausing
+     * unsubscribes from the stream, so e.g. the tabs of a tabbed pane that are not selected cause no work.
+     *
+     * @param component
+     *            the component whose lifecycle the stream is bound to
+     * @param binding
+     *            how the stream is bound to the component
+     * @return a transformer that binds the stream to the lifecycle of the component
+     */
+    public static <T> Observable.Transformer<T, T> bindToLifecycle(Component component, LifecycleBinding binding) {
+        return binding.bind(component);
+    }
+
     /**
      * Check if the current thead is the event dispatch thread.
      * 
      * @throws IllegalStateException if the current thread is not the event dispatch thread.
      */
     public static void assertEventDispatchThread() {
-        if (!SwingUtilities.isEventDispatchThread()) {
+        if (!SwingScheduler.isEventDispatchThread()) {
             throw new IllegalStateException("Need to run in the event dispatch thread, but was " + Thread.currentThread());
         }
     }
+
+    /**
+     * Changes how the events of a Swing event source are buffered while the subscriber cannot take them.
+     * <p>
+     * All observables of this class honour backpressure. By default they buffer up to
+     * {@value OverflowStrategy#DEFAULT_CAPACITY} events per subscriber that were not requested yet, and fail with
+     * a {@link rx.exceptions.MissingBackpressureException} when more arrive. Composing an event observable with
+     * this transformer requests all of its events and applies the given strategy and capacity instead, e.g.
+     * <pre>
+     * SwingObservable.fromMouseEvents(component)
+     *         .compose(SwingObservable.&lt;MouseEvent&gt;onOverflow(OverflowStrategy.DROP_OLDEST, 16))
+     *         .observeOn(Schedulers.computation())
+     * </pre>
+     * The events may arrive on any thread, like those of a {@link Document} edited by a worker thread; they are
+     * passed on one at a time and in order.
+     *
+     * @param strategy
+     *            what to do with an event that does not fit into the buffer
+     * @param capacity
+     *            the maximum number of events to buffer per subscriber, ignored by {@link OverflowStrategy#LATEST}
+     * @return a transformer that bounds the buffered events of a Swing event source
+     */
+    public static <T> Observable.Transformer<T, T> onOverflow(OverflowStrategy strategy, int capacity) {
+        return strategy.withCapacity(capacity);
+    }
+
+    /**
+     * Runs a computation per trigger on the given scheduler and renders its values on the Swing UI thread in
+     * chunks, the reactive counterpart of {@link SwingWorker#publish} and {@link SwingWorker#process}. A new
+     * trigger cancels the computation of the previous one. See {@link ComputeThenRender} for details.
+     *
+     * @param computation
+     *            returns the computation for a trigger, which must honour backpressure
+     * @param scheduler
+     *            the scheduler to subscribe to the computations on
+     * @param capacity
+     *            the maximum number of values to buffer until they are rendered, i.e. the maximum chunk size
+     * @return a transformer of triggers into chunks of values, emitted on the Swing UI thread
+     */
+    public static <T, R> Observable.Transformer<T, List<R>> computeThenRender(
+            Func1<? super T, ? extends Observable<R>> computation, Scheduler scheduler, int capacity) {
+        return ComputeThenRender.create(computation, scheduler, capacity);
+    }
 }
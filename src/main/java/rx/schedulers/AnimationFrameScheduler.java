@@ -0,0 +1,284 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import java.awt.EventQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+
+/**
+ * Executes work on the Swing UI thread at frame boundaries.
+ * <p>
+ * Actions are never run immediately, not even when scheduled from the Swing UI thread. They are queued and
+ * run in the order they were scheduled by the next frame. Frames start on a fixed grid of
+ * <code>frameInterval</code>, like a display refresh, and only while there is queued work. A frame stops
+ * running actions once it has used up its <code>frameBudget</code>; the remaining actions are carried over
+ * to the next frame. The budget is checked after each action, so a single slow action overruns it.
+ * <p>
+ * This keeps high-rate streams, e.g. mouse motion or background producers observed on this scheduler, from
+ * blocking the Swing UI thread for longer than one frame. Delayed actions are queued for the first frame
+ * after their delay has elapsed. Cancelled actions leave the queue at once, so they neither wait for a frame
+ * nor count as deferred.
+ */
+public final class AnimationFrameScheduler extends Scheduler {
+
+    private static final Executor INVOKE_LATER = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            EventQueue.invokeLater(runnable);
+        }
+    };
+
+    private static final AnimationFrameScheduler INSTANCE = new AnimationFrameScheduler(
+            TimeUnit.MILLISECONDS.toNanos(16), TimeUnit.MILLISECONDS.toNanos(8));
+
+    /**
+     * @return the shared scheduler with 16 millisecond frames and a budget of 8 milliseconds per frame
+     */
+    public static AnimationFrameScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates a scheduler with its own frame clock.
+     *
+     * @param frameInterval
+     *            the time between the starts of two frames, e.g. 16 milliseconds for 60 frames per second
+     * @param frameBudget
+     *            the time after which a frame stops running actions
+     * @param unit
+     *            the time unit of <code>frameInterval</code> and <code>frameBudget</code>
+     * @return a new scheduler
+     */
+    public static AnimationFrameScheduler create(long frameInterval, long frameBudget, TimeUnit unit) {
+        if (frameInterval <= 0) {
+            throw new IllegalArgumentException("frameInterval > 0 required but it was " + frameInterval);
+        }
+        if (frameBudget <= 0) {
+            throw new IllegalArgumentException("frameBudget > 0 required but it was " + frameBudget);
+        }
+        return new AnimationFrameScheduler(unit.toNanos(frameInterval), unit.toNanos(frameBudget));
+    }
+
+    private final long frameIntervalNanos;
+    private final long frameBudgetNanos;
+    private final long originNanos;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean frameRequested = new AtomicBoolean();
+    private final SwingTimerWheel timerWheel = new SwingTimerWheel(INVOKE_LATER);
+    private final SwingTimerWheel.Timeout frameTimeout = new SwingTimerWheel.Timeout(new Runnable() {
+        @Override
+        public void run() {
+            runFrame();
+        }
+    });
+
+    private final AtomicLong framesRun = new AtomicLong();
+    private final AtomicLong actionsDeferred = new AtomicLong();
+    private final AtomicLong budgetOverruns = new AtomicLong();
+
+    private AnimationFrameScheduler(long frameIntervalNanos, long frameBudgetNanos) {
+        this.frameIntervalNanos = frameIntervalNanos;
+        this.frameBudgetNanos = frameBudgetNanos;
+        this.originNanos = System.nanoTime();
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new InnerAnimationFrameScheduler();
+    }
+
+    /**
+     * @return the number of frames that have run so far
+     */
+    public long getFramesRun() {
+        return framesRun.get();
+    }
+
+    /**
+     * @return the total number of actions that were still queued at the end of a frame and had to wait for
+     *         a later one; an action deferred over several frames is counted once per frame
+     */
+    public long getActionsDeferred() {
+        return actionsDeferred.get();
+    }
+
+    /**
+     * @return the number of frames that ran longer than the frame budget
+     */
+    public long getBudgetOverruns() {
+        return budgetOverruns.get();
+    }
+
+    private void enqueue(Runnable action) {
+        queue.offer(action);
+        queued.incrementAndGet();
+        if (frameRequested.compareAndSet(false, true)) {
+            requestFrame();
+        }
+    }
+
+    private void requestFrame() {
+        long elapsed = System.nanoTime() - originNanos;
+        long nextFrame = originNanos + (elapsed / frameIntervalNanos + 1) * frameIntervalNanos;
+        timerWheel.schedule(frameTimeout, nextFrame);
+    }
+
+    private void runFrame() {
+        if (queue.isEmpty()) {
+            // all actions have been cancelled since the frame was requested
+            stopFrames();
+            return;
+        }
+        framesRun.incrementAndGet();
+        final long start = System.nanoTime();
+        try {
+            for (;;) {
+                Runnable action = queue.poll();
+                if (action == null) {
+                    break;
+                }
+                queued.decrementAndGet();
+                action.run();
+                if (System.nanoTime() - start >= frameBudgetNanos) {
+                    break;
+                }
+            }
+        } finally {
+            if (System.nanoTime() - start > frameBudgetNanos) {
+                budgetOverruns.incrementAndGet();
+            }
+            int remaining = queued.get();
+            if (remaining > 0) {
+                actionsDeferred.addAndGet(remaining);
+                requestFrame();
+            } else {
+                stopFrames();
+            }
+        }
+    }
+
+    private void stopFrames() {
+        frameRequested.set(false);
+        // an action may have been queued after the last poll but before the flag was reset
+        if (!queue.isEmpty() && frameRequested.compareAndSet(false, true)) {
+            requestFrame();
+        }
+    }
+
+    private final class InnerAnimationFrameScheduler extends Worker {
+
+        private final CompositeSubscription innerSubscription = new CompositeSubscription();
+
+        @Override
+        public void unsubscribe() {
+            innerSubscription.unsubscribe();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return innerSubscription.isUnsubscribed();
+        }
+
+        @Override
+        public Subscription schedule(Action0 action) {
+            FrameAction frameAction = new FrameAction(this, action);
+            innerSubscription.add(frameAction);
+            enqueue(frameAction);
+            return frameAction;
+        }
+
+        @Override
+        public Subscription schedule(Action0 action, long delayTime, TimeUnit unit) {
+            long delayNanos = unit.toNanos(delayTime);
+            if (delayNanos <= 0) {
+                return schedule(action);
+            }
+            final FrameAction frameAction = new FrameAction(this, action);
+            innerSubscription.add(frameAction);
+            SwingTimerWheel.Timeout timeout = timerWheel.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!frameAction.isUnsubscribed()) {
+                        enqueue(frameAction);
+                    }
+                }
+            }, delayNanos);
+            frameAction.timeout = timeout;
+            if (frameAction.isUnsubscribed()) {
+                timerWheel.cancel(timeout);
+            }
+            return frameAction;
+        }
+    }
+
+    /**
+     * An action waiting for a frame, which is also its own subscription.
+     */
+    private final class FrameAction implements Runnable, Subscription {
+        private final InnerAnimationFrameScheduler worker;
+        private final Action0 action;
+        private volatile boolean unsubscribed;
+        private volatile SwingTimerWheel.Timeout timeout;
+
+        FrameAction(InnerAnimationFrameScheduler worker, Action0 action) {
+            this.worker = worker;
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            if (unsubscribed || worker.isUnsubscribed()) {
+                return;
+            }
+            action.call();
+            worker.innerSubscription.remove(this);
+        }
+
+        @Override
+        public void unsubscribe() {
+            if (!unsubscribed) {
+                unsubscribed = true;
+                SwingTimerWheel.Timeout t = timeout;
+                if (t != null) {
+                    timerWheel.cancel(t);
+                }
+                // neither kept nor counted as deferred until its frame comes
+                if (queue.remove(this)) {
+                    queued.decrementAndGet();
+                }
+                worker.innerSubscription.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import java.awt.EventQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects runnables from any thread in lock-free queues and runs them on the event dispatch thread
+ * from a single drain event.
+ * <p>
+ * At most one drain event is pending on the AWT {@link EventQueue} at any time. The drain runs the
+ * queued runnables until the queues are empty or the time budget is used up, in which case it re-posts
+ * itself behind the events that arrived in the meantime.
+ * <p>
+ * Runnables are kept in one or more lanes, lane 0 having the highest priority. Each lane is FIFO and a
+ * lane is only drained while all higher lanes are empty, except that a lane that has been passed over
+ * <code>starvationLimit</code> times while not empty, since it last ran, gets to run one runnable.
+ */
+/* package */final class EdtDrainQueue implements Runnable {
+
+    private final Queue<Runnable>[] lanes;
+    private final Executor[] laneExecutors;
+    private final AtomicBoolean drainPosted = new AtomicBoolean();
+    private final long budgetNanos;
+    private final int starvationLimit;
+    // only accessed by the event dispatch thread
+    private final int[] passedOver;
+
+    /**
+     * Creates a queue with a single lane.
+     *
+     * @param budgetNanos
+     *            the maximum time a single drain event may spend running actions, or 0 for no limit
+     */
+    EdtDrainQueue(long budgetNanos) {
+        this(budgetNanos, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param budgetNanos
+     *            the maximum time a single drain event may spend running actions, or 0 for no limit
+     * @param laneCount
+     *            the number of priority lanes
+     * @param starvationLimit
+     *            how often in a row a non-empty lane may be passed over in favor of higher lanes
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    EdtDrainQueue(long budgetNanos, int laneCount, int starvationLimit) {
+        this.budgetNanos = budgetNanos;
+        this.starvationLimit = starvationLimit;
+        this.lanes = new Queue[laneCount];
+        this.laneExecutors = new Executor[laneCount];
+        this.passedOver = new int[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            final Queue<Runnable> lane = new ConcurrentLinkedQueue<Runnable>();
+            lanes[i] = lane;
+            laneExecutors[i] = new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                    lane.offer(runnable);
+                    if (drainPosted.compareAndSet(false, true)) {
+                        EventQueue.invokeLater(EdtDrainQueue.this);
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * @return an executor that puts runnables into the given lane
+     */
+    Executor lane(int index) {
+        return laneExecutors[index];
+    }
+
+    @Override
+    public void run() {
+        final long start = System.nanoTime();
+        boolean drained = false;
+        try {
+            for (;;) {
+                Runnable runnable = poll();
+                if (runnable == null) {
+                    drainPosted.set(false);
+                    // a producer may have offered after the poll but before the flag was reset
+                    if (isEmpty() || !drainPosted.compareAndSet(false, true)) {
+                        drained = true;
+                        return;
+                    }
+                    continue;
+                }
+                runnable.run();
+                if (budgetNanos > 0 && System.nanoTime() - start >= budgetNanos) {
+                    return;
+                }
+            }
+        } finally {
+            if (!drained) {
+                // budget exhausted or an action failed: let other events through and continue later
+                EventQueue.invokeLater(this);
+            }
+        }
+    }
+
+    private Runnable poll() {
+        for (int i = 1; i < lanes.length; i++) {
+            if (passedOver[i] >= starvationLimit) {
+                passedOver[i] = 0;
+                Runnable runnable = lanes[i].poll();
+                if (runnable != null) {
+                    return runnable;
+                }
+            }
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            Runnable runnable = lanes[i].poll();
+            if (runnable != null) {
+                passedOver[i] = 0;
+                for (int j = i + 1; j < lanes.length; j++) {
+                    if (!lanes[j].isEmpty()) {
+                        passedOver[j]++;
+                    }
+                }
+                return runnable;
+            }
+        }
+        return null;
+    }
+
+    private boolean isEmpty() {
+        for (Queue<Runnable> lane : lanes) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
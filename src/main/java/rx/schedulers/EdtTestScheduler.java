@@ -0,0 +1,284 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * A scheduler for tests that behaves like the {@link SwingScheduler} but runs on virtual time, like the
+ * {@link TestScheduler}.
+ * <p>
+ * Actions scheduled without delay on the Swing UI thread run immediately, all other actions are queued and
+ * run by {@link #triggerActions()}, {@link #advanceTimeBy(long, TimeUnit)} or
+ * {@link #advanceTimeTo(long, TimeUnit)} once their virtual due time has come, in the order of their due times
+ * and then in the order they were scheduled. A delay of 0 queues the action like on the real scheduler, so it
+ * runs by the next trigger even if it was scheduled on the Swing UI thread. Delays are validated like those
+ * of the real scheduler.
+ * <p>
+ * The thread that triggers the actions counts as the Swing UI thread while they run. To make the whole
+ * library use virtual time, {@link #install()} a scheduler: then the workers of all {@link SwingScheduler}s are
+ * workers of the installed scheduler, and the installing thread counts as the Swing UI thread for
+ * {@link SwingScheduler#isEventDispatchThread()}, which all RxSwing sources use. A test can then subscribe,
+ * fire events and advance the time from its own thread, without waiting for the AWT event queue:
+ * <pre>
+ * EdtTestScheduler scheduler = EdtTestScheduler.install();
+ * try {
+ *     SwingObservable.fromDocumentEdits(document).debounce(100, TimeUnit.MILLISECONDS, SwingScheduler.getInstance())
+ *             .subscribe(subscriber);
+ *     document.insertString(0, "text", null);
+ *     scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+ *     subscriber.assertValueCount(1);
+ * } finally {
+ *     EdtTestScheduler.uninstall();
+ * }
+ * </pre>
+ * The real Swing UI thread keeps counting as such, and the {@link AnimationFrameScheduler} keeps using it.
+ * When no scheduler is installed, the cost for the {@link SwingScheduler} is one volatile read per worker and
+ * one per check of the thread off the Swing UI thread.
+ */
+public final class EdtTestScheduler extends Scheduler {
+
+    private static volatile EdtTestScheduler installed;
+
+    /**
+     * Installs a new scheduler, replacing the current one, with the calling thread as the emulated Swing UI
+     * thread.
+     *
+     * @return the installed scheduler
+     */
+    public static synchronized EdtTestScheduler install() {
+        EdtTestScheduler scheduler = new EdtTestScheduler();
+        scheduler.emulatedEdt = Thread.currentThread();
+        installed = scheduler;
+        return scheduler;
+    }
+
+    /**
+     * Removes the installed scheduler, if any. Its queued actions are not run anymore.
+     */
+    public static synchronized void uninstall() {
+        installed = null;
+    }
+
+    /**
+     * @return the installed scheduler or null if there is none
+     */
+    public static EdtTestScheduler getInstalled() {
+        return installed;
+    }
+
+    /**
+     * @return true if the calling thread is the emulated Swing UI thread of the installed scheduler
+     */
+    /* package */static boolean isEmulatedEdt() {
+        EdtTestScheduler scheduler = installed;
+        return scheduler != null && scheduler.isEdt(Thread.currentThread());
+    }
+
+    // guarded by this
+    private final Queue<QueuedAction> queue = new PriorityQueue<QueuedAction>();
+    private long time;
+    private long counter;
+    private volatile Thread emulatedEdt;
+    private volatile Thread triggeringThread;
+
+    private boolean isEdt(Thread thread) {
+        return thread == emulatedEdt || thread == triggeringThread;
+    }
+
+    private boolean isEdt() {
+        Thread current = Thread.currentThread();
+        return isEdt(current) || SwingScheduler.isEventDispatchThread();
+    }
+
+    @Override
+    public synchronized long now() {
+        return TimeUnit.NANOSECONDS.toMillis(time);
+    }
+
+    /**
+     * Moves the virtual time forward and runs the actions that are due until then.
+     */
+    public void advanceTimeBy(long delayTime, TimeUnit unit) {
+        long target;
+        synchronized (this) {
+            target = time + unit.toNanos(delayTime);
+        }
+        advanceTimeTo(target, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Moves the virtual time to the given point and runs the actions that are due until then. The time does
+     * not go backwards.
+     */
+    public void advanceTimeTo(long delayTime, TimeUnit unit) {
+        triggerActions(unit.toNanos(delayTime));
+    }
+
+    /**
+     * Runs the actions that are due at the current virtual time, including those they schedule without delay.
+     */
+    public void triggerActions() {
+        long now;
+        synchronized (this) {
+            now = time;
+        }
+        triggerActions(now);
+    }
+
+    private void triggerActions(long targetNanos) {
+        Thread previous = triggeringThread;
+        triggeringThread = Thread.currentThread();
+        try {
+            for (;;) {
+                QueuedAction next;
+                synchronized (this) {
+                    next = queue.peek();
+                    if (next == null || next.dueNanos > targetNanos) {
+                        time = Math.max(time, targetNanos);
+                        return;
+                    }
+                    queue.poll();
+                    time = Math.max(time, next.dueNanos);
+                }
+                next.run();
+            }
+        } finally {
+            triggeringThread = previous;
+        }
+    }
+
+    private synchronized QueuedAction enqueue(InnerEdtTestScheduler worker, Action0 action, long delayNanos) {
+        QueuedAction queuedAction = new QueuedAction(worker, action, time + Math.max(0, delayNanos), counter++);
+        queue.add(queuedAction);
+        return queuedAction;
+    }
+
+    private synchronized void dequeue(QueuedAction queuedAction) {
+        queue.remove(queuedAction);
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new InnerEdtTestScheduler();
+    }
+
+    private final class InnerEdtTestScheduler extends Worker {
+
+        private final CompositeSubscription innerSubscription = new CompositeSubscription();
+
+        @Override
+        public void unsubscribe() {
+            innerSubscription.unsubscribe();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return innerSubscription.isUnsubscribed();
+        }
+
+        @Override
+        public long now() {
+            return EdtTestScheduler.this.now();
+        }
+
+        @Override
+        public Subscription schedule(Action0 action) {
+            if (isEdt()) {
+                if (!innerSubscription.isUnsubscribed()) {
+                    action.call();
+                }
+                return Subscriptions.unsubscribed();
+            }
+            return schedule(action, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public Subscription schedule(Action0 action, long delayTime, TimeUnit unit) {
+            SwingScheduler.assertThatTheDelayIsValid(delayTime, unit);
+            if (innerSubscription.isUnsubscribed()) {
+                return Subscriptions.unsubscribed();
+            }
+            QueuedAction queuedAction = enqueue(this, action, unit.toNanos(delayTime));
+            innerSubscription.add(queuedAction);
+            return queuedAction;
+        }
+
+        @Override
+        public Subscription schedulePeriodically(Action0 action, long initialDelay, long period, TimeUnit unit) {
+            SwingScheduler.assertThatTheDelayIsValid(initialDelay, unit);
+            SwingScheduler.assertThatTheDelayIsValid(period, unit);
+            return super.schedulePeriodically(action, initialDelay, period, unit);
+        }
+    }
+
+    /**
+     * An action waiting for its virtual due time, which is also its own subscription.
+     */
+    private final class QueuedAction implements Subscription, Comparable<QueuedAction> {
+        private final InnerEdtTestScheduler worker;
+        private final Action0 action;
+        private final long dueNanos;
+        private final long order;
+        private volatile boolean unsubscribed;
+
+        QueuedAction(InnerEdtTestScheduler worker, Action0 action, long dueNanos, long order) {
+            this.worker = worker;
+            this.action = action;
+            this.dueNanos = dueNanos;
+            this.order = order;
+        }
+
+        void run() {
+            if (unsubscribed || worker.isUnsubscribed()) {
+                return;
+            }
+            unsubscribed = true;
+            worker.innerSubscription.remove(this);
+            action.call();
+        }
+
+        @Override
+        public int compareTo(QueuedAction other) {
+            if (dueNanos != other.dueNanos) {
+                return dueNanos < other.dueNanos ? -1 : 1;
+            }
+            return order < other.order ? -1 : (order == other.order ? 0 : 1);
+        }
+
+        @Override
+        public void unsubscribe() {
+            if (!unsubscribed) {
+                unsubscribed = true;
+                dequeue(this);
+                worker.innerSubscription.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+    }
+}
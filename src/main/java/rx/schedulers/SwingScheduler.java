@@ -16,8 +16,9 @@
 package rx.schedulers;
 
 import java.awt.EventQueue;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import javax.swing.*;
@@ -28,34 +29,246 @@ import rx.functions.Action0;
 import rx.subscriptions.BooleanSubscription;
 import rx.subscriptions.CompositeSubscription;
 import rx.subscriptions.Subscriptions;
+import rx.swing.monitor.EdtMonitor;
 
 /**
  * Executes work on the Swing UI thread.
  * This scheduler should only be used with actions that execute quickly.
  *
  * If the calling thread is the Swing UI thread, and no delay parameter is
- * provided, the action will run immediately. Otherwise, if the calling
+ * provided, the action will run immediately, without allocating anything; the
+ * returned subscription is then already unsubscribed. Otherwise, if the calling
  * thread is NOT the Swing UI thread, the action will be deferred until
  * all pending UI events have been processed.
+ *
+ * The scheduler returned by {@link #getInstance()} posts a separate event to the AWT event queue for each
+ * deferred action. Schedulers created by {@link #coalescing(long, TimeUnit)} instead collect deferred actions
+ * in a queue that is drained by a single event, and {@link #getInstance(Priority)} returns schedulers that
+ * share such a queue with separate priority lanes. Each of them can be made {@link #trampolined()}, so that
+ * actions scheduled from within immediately executed actions are queued instead of nested.
+ *
+ * Delayed actions are kept in a timer wheel, one per scheduler, that runs off the Swing UI thread and
+ * hands expired actions to it in batches. The wheel has a resolution of 4 milliseconds: delays are rounded
+ * up to the next multiple of it, so a delayed action never runs early but may run up to one tick late.
+ *
+ * All actions run through the {@link EdtMonitor}, if one is installed. While an {@link EdtTestScheduler} is
+ * installed, the workers of all Swing schedulers are workers of that scheduler instead.
  */
 public final class SwingScheduler extends Scheduler {
+    private static final Executor INVOKE_LATER = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            EventQueue.invokeLater(runnable);
+        }
+    };
+
     private static final SwingScheduler INSTANCE = new SwingScheduler();
 
+    private static final long PRIORITY_DRAIN_BUDGET_MILLIS = 8;
+    private static final int PRIORITY_STARVATION_LIMIT = 32;
+    private static final SwingScheduler[] PRIORITY_INSTANCES = createPriorityInstances();
+
+    private static SwingScheduler[] createPriorityInstances() {
+        Priority[] priorities = Priority.values();
+        EdtDrainQueue dispatcher = new EdtDrainQueue(TimeUnit.MILLISECONDS.toNanos(PRIORITY_DRAIN_BUDGET_MILLIS),
+                priorities.length, PRIORITY_STARVATION_LIMIT);
+        SwingScheduler[] schedulers = new SwingScheduler[priorities.length];
+        for (Priority priority : priorities) {
+            schedulers[priority.ordinal()] = new SwingScheduler(dispatcher.lane(priority.ordinal()));
+        }
+        return schedulers;
+    }
+
     public static SwingScheduler getInstance() {
         return INSTANCE;
     }
 
+    /**
+     * Creates a scheduler that coalesces deferred actions instead of posting one event per action.
+     * <p>
+     * Actions scheduled from outside the event dispatch thread are put into a lock-free queue and at most
+     * one drain event is pending on the AWT event queue at any time. The drain event runs the pending
+     * actions in the order they were scheduled. Once it has been running for longer than
+     * <code>drainBudget</code>, it stops and posts a new drain event, so that input and paint events that
+     * arrived in the meantime are not starved. The budget is checked after each action, so a single slow
+     * action may exceed it.
+     *
+     * @param drainBudget
+     *            the maximum time a single drain event runs actions, or 0 to always drain the whole queue
+     * @param unit
+     *            the time unit of <code>drainBudget</code>
+     * @return a new coalescing scheduler
+     */
+    public static SwingScheduler coalescing(long drainBudget, TimeUnit unit) {
+        if (drainBudget < 0) {
+            throw new IllegalArgumentException("drainBudget >= 0 required but it was " + drainBudget);
+        }
+        return new SwingScheduler(new EdtDrainQueue(unit.toNanos(drainBudget)).lane(0));
+    }
+
+    /**
+     * Returns the scheduler for the given priority lane.
+     * <p>
+     * The schedulers of all priorities share one coalescing dispatcher (see {@link #coalescing(long, TimeUnit)})
+     * with a budget of 8 milliseconds per drain event. Actions deferred to
+     * a higher lane always run before those of lower lanes. To keep lower lanes from starving, a non-empty lane
+     * that has been passed over 32 times in a row gets to run one action.
+     * <p>
+     * Actions scheduled from the Swing UI thread without a delay still run immediately, whatever their priority.
+     *
+     * @param priority
+     *            the lane to schedule deferred actions in
+     * @return the shared scheduler of that priority
+     */
+    public static SwingScheduler getInstance(Priority priority) {
+        return PRIORITY_INSTANCES[priority.ordinal()];
+    }
+
+    /**
+     * Priority lanes for deferred work, see {@link SwingScheduler#getInstance(Priority)}.
+     */
+    public enum Priority {
+        /** Reactions to user input. */
+        INPUT,
+        /** Updates of what is currently visible. */
+        RENDER,
+        /** Cosmetic or otherwise deferrable updates, e.g. from background feeds. */
+        BACKGROUND
+    }
+
+    // nested actions of trampolined schedulers, only accessed by the Swing UI thread
+    private static final Queue<Runnable> TRAMPOLINE = new ArrayDeque<Runnable>();
+    private static boolean trampolineActive;
+    private static final Runnable RESUME_TRAMPOLINE = new Runnable() {
+        @Override
+        public void run() {
+            runTrampolined(null);
+        }
+    };
+
+    private final Executor edtExecutor;
+    private final SwingTimerWheel timerWheel;
+    private final boolean trampolined;
+
     /* package for unit test */SwingScheduler() {
+        this(INVOKE_LATER);
+    }
+
+    private SwingScheduler(Executor edtExecutor) {
+        this(edtExecutor, new SwingTimerWheel(edtExecutor), false);
+    }
+
+    private SwingScheduler(Executor edtExecutor, SwingTimerWheel timerWheel, boolean trampolined) {
+        this.edtExecutor = edtExecutor;
+        this.timerWheel = timerWheel;
+        this.trampolined = trampolined;
+    }
+
+    /**
+     * Returns a scheduler that defers and dispatches actions like this one, but does not nest the immediate
+     * execution of actions on the Swing UI thread.
+     * <p>
+     * An action scheduled without delay from the Swing UI thread still runs immediately. Actions scheduled
+     * the same way while such an action is running, directly or through further nesting, are put into a
+     * queue confined to the Swing UI thread instead and run one after the other once the outermost action
+     * has returned, still within the same UI event. This keeps the stack depth constant for deep operator
+     * chains, at the price of nested actions no longer running before the action that scheduled them
+     * returns.
+     * <p>
+     * If an action throws, the exception is propagated to the outermost caller and the actions still queued
+     * are run by a new UI event.
+     *
+     * @return a trampolined variant of this scheduler sharing its dispatcher and timer wheel
+     */
+    public SwingScheduler trampolined() {
+        if (trampolined) {
+            return this;
+        }
+        return new SwingScheduler(edtExecutor, timerWheel, true);
     }
 
     @Override
     public Worker createWorker() {
-        return new InnerSwingScheduler();
+        EdtTestScheduler testScheduler = EdtTestScheduler.getInstalled();
+        if (testScheduler != null) {
+            return testScheduler.createWorker();
+        }
+        return new InnerSwingScheduler(edtExecutor, timerWheel, trampolined);
+    }
+
+    /**
+     * Checks if the calling thread is the Swing UI thread, or the thread emulating it for an installed
+     * {@link EdtTestScheduler}. All RxSwing code uses this check instead of
+     * {@link SwingUtilities#isEventDispatchThread()}.
+     *
+     * @return true if the calling thread is, or counts as, the Swing UI thread
+     */
+    public static boolean isEventDispatchThread() {
+        return SwingUtilities.isEventDispatchThread() || EdtTestScheduler.isEmulatedEdt();
+    }
+
+    /**
+     * Runs an action immediately on the Swing UI thread.
+     */
+    private static void call(Action0 action) {
+        EdtMonitor monitor = EdtMonitor.getInstalled();
+        if (monitor == null) {
+            action.call();
+        } else {
+            monitor.execute(action);
+        }
+    }
+
+    /**
+     * Runs an action on the Swing UI thread that has been waiting since the given {@link System#nanoTime()}.
+     */
+    private static void call(Action0 action, long queuedNanos) {
+        EdtMonitor monitor = EdtMonitor.getInstalled();
+        if (monitor == null) {
+            action.call();
+        } else {
+            monitor.execute(action, queuedNanos);
+        }
+    }
+
+    /**
+     * Runs the action, if not null, and then everything that is queued on the trampoline. Must be called on
+     * the Swing UI thread while the trampoline is not active.
+     */
+    private static void runTrampolined(Action0 action) {
+        trampolineActive = true;
+        try {
+            if (action != null) {
+                call(action);
+            }
+            for (;;) {
+                Runnable next = TRAMPOLINE.poll();
+                if (next == null) {
+                    return;
+                }
+                next.run();
+            }
+        } finally {
+            trampolineActive = false;
+            if (!TRAMPOLINE.isEmpty()) {
+                // an action failed: let the exception through and run the rest in a later event
+                EventQueue.invokeLater(RESUME_TRAMPOLINE);
+            }
+        }
     }
 
     private static class InnerSwingScheduler extends Worker {
 
         private final CompositeSubscription innerSubscription = new CompositeSubscription();
+        private final Executor edtExecutor;
+        private final SwingTimerWheel timerWheel;
+        private final boolean trampolined;
+
+        InnerSwingScheduler(Executor edtExecutor, SwingTimerWheel timerWheel, boolean trampolined) {
+            this.edtExecutor = edtExecutor;
+            this.timerWheel = timerWheel;
+            this.trampolined = trampolined;
+        }
 
         @Override
         public void unsubscribe() {
@@ -69,40 +282,77 @@ public final class SwingScheduler extends Scheduler {
 
         @Override
         public Subscription schedule(final Action0 action, long delayTime, TimeUnit unit) {
-            long delay = Math.max(0, unit.toMillis(delayTime));
-            assertThatTheDelayIsValidForTheSwingTimer(delay);
-            final BooleanSubscription s = BooleanSubscription.create();
-            class ExecuteOnceAction implements ActionListener {
-                private Timer timer;
+            assertThatTheDelayIsValid(delayTime, unit);
+            long delayNanos = unit.toNanos(delayTime);
+            QueuedAction queuedAction = new QueuedAction(this, action, System.nanoTime() + Math.max(0, delayNanos));
+            innerSubscription.add(queuedAction);
+            if (delayNanos <= 0) {
+                // never run inline, a delayed action always waits for the pending UI events
+                edtExecutor.execute(queuedAction);
+            } else {
+                SwingTimerWheel.Timeout timeout = timerWheel.schedule(queuedAction, delayNanos);
+                queuedAction.timeout = timeout;
+                if (queuedAction.isUnsubscribed()) {
+                    timerWheel.cancel(timeout);
+                }
+            }
+            return queuedAction;
+        }
 
-                private void setTimer(Timer timer) {
-                    this.timer = timer;
+        @Override
+        public Subscription schedulePeriodically(Action0 action, long initialDelay, long period, TimeUnit unit) {
+            assertThatTheDelayIsValid(initialDelay, unit);
+            assertThatTheDelayIsValid(period, unit);
+            PeriodicAction periodicAction = new PeriodicAction(this, action, Math.max(0, unit.toNanos(period)));
+            innerSubscription.add(periodicAction);
+            periodicAction.start(System.nanoTime() + Math.max(0, unit.toNanos(initialDelay)));
+            return periodicAction;
+        }
+
+        @Override
+        public Subscription schedule(final Action0 action) {
+            if (isEventDispatchThread()) {
+                if (trampolined && trampolineActive) {
+                    QueuedAction queuedAction = new QueuedAction(this, action, System.nanoTime());
+                    innerSubscription.add(queuedAction);
+                    TRAMPOLINE.offer(queuedAction);
+                    return queuedAction;
                 }
+                // the action has completed by the time it could be unsubscribed, so there is nothing to
+                // track: skip the composite and hand out the shared, already unsubscribed subscription
+                if (!innerSubscription.isUnsubscribed()) {
+                    if (trampolined) {
+                        runTrampolined(action);
+                    } else {
+                        call(action);
+                    }
+                }
+                return Subscriptions.unsubscribed();
+            }
 
+            final BooleanSubscription s = BooleanSubscription.create();
+            final long queuedNanos = System.nanoTime();
+
+            final Runnable runnable = new Runnable() {
                 @Override
-                public void actionPerformed(ActionEvent e) {
-                    timer.stop();
+                public void run() {
                     if (innerSubscription.isUnsubscribed() || s.isUnsubscribed()) {
                         return;
                     }
-                    action.call();
+                    call(action, queuedNanos);
                     innerSubscription.remove(s);
                 }
-            }
-
-            ExecuteOnceAction executeOnce = new ExecuteOnceAction();
-            final Timer timer = new Timer((int) delay, executeOnce);
-            executeOnce.setTimer(timer);
-            timer.start();
+            };
 
+            // track the action before it is handed over, it may run and remove itself right away
             innerSubscription.add(s);
+            edtExecutor.execute(runnable);
 
             // wrap for returning so it also removes it from the 'innerSubscription'
             return Subscriptions.create(new Action0() {
 
                 @Override
                 public void call() {
-                    timer.stop();
                     s.unsubscribe();
                     innerSubscription.remove(s);
                 }
@@ -110,45 +360,135 @@ public final class SwingScheduler extends Scheduler {
             });
         }
 
+    }
+
+    /**
+     * An action waiting in the timer wheel, the event queue or the trampoline, which is also its own subscription.
+     */
+    private static final class QueuedAction implements Runnable, Subscription {
+        private final InnerSwingScheduler worker;
+        private final Action0 action;
+        private final long dueNanos;
+        private volatile boolean unsubscribed;
+        private volatile SwingTimerWheel.Timeout timeout;
+
+        QueuedAction(InnerSwingScheduler worker, Action0 action, long dueNanos) {
+            this.worker = worker;
+            this.action = action;
+            this.dueNanos = dueNanos;
+        }
+
         @Override
-        public Subscription schedule(final Action0 action) {
-            final BooleanSubscription s = BooleanSubscription.create();
+        public void run() {
+            if (unsubscribed || worker.isUnsubscribed()) {
+                return;
+            }
+            call(action, dueNanos);
+            worker.innerSubscription.remove(this);
+        }
 
-            final Runnable runnable = new Runnable() {
-                @Override
-                public void run() {
-                    if (innerSubscription.isUnsubscribed() || s.isUnsubscribed()) {
-                        return;
-                    }
-                    action.call();
-                    innerSubscription.remove(s);
+        @Override
+        public void unsubscribe() {
+            if (!unsubscribed) {
+                unsubscribed = true;
+                SwingTimerWheel.Timeout t = timeout;
+                if (t != null) {
+                    worker.timerWheel.cancel(t);
                 }
-            };
-
-            if (SwingUtilities.isEventDispatchThread()){
-                runnable.run();
-            } else {
-                EventQueue.invokeLater(runnable);
+                worker.innerSubscription.remove(this);
             }
+        }
 
-            innerSubscription.add(s);
-            // wrap for returning so it also removes it from the 'innerSubscription'
-            return Subscriptions.create(new Action0() {
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+    }
 
-                @Override
-                public void call() {
-                    s.unsubscribe();
-                    innerSubscription.remove(s);
+    /**
+     * An action that re-arms the same timeout in the timer wheel after each run.
+     * <p>
+     * Deadlines are computed from the first deadline and the number of elapsed periods, so the schedule
+     * does not drift with the time the action or the event queue takes. If the Swing UI thread falls
+     * behind, the missed periods are skipped instead of running the action in a burst.
+     */
+    private static final class PeriodicAction implements Runnable, Subscription {
+        private final InnerSwingScheduler worker;
+        private final Action0 action;
+        private final long periodNanos;
+        private final SwingTimerWheel.Timeout timeout;
+        private volatile boolean unsubscribed;
+        // only accessed by the Swing UI thread after start
+        private long firstDeadline;
+        private long periods;
+        private long deadline;
+
+        PeriodicAction(InnerSwingScheduler worker, Action0 action, long periodNanos) {
+            this.worker = worker;
+            this.action = action;
+            this.periodNanos = periodNanos;
+            this.timeout = new SwingTimerWheel.Timeout(this);
+        }
+
+        void start(long firstDeadline) {
+            this.firstDeadline = firstDeadline;
+            this.deadline = firstDeadline;
+            worker.timerWheel.schedule(timeout, firstDeadline);
+            if (unsubscribed) {
+                worker.timerWheel.cancel(timeout);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (unsubscribed || worker.isUnsubscribed()) {
+                return;
+            }
+            call(action, deadline);
+            if (unsubscribed || worker.isUnsubscribed()) {
+                return;
+            }
+            long now = System.nanoTime();
+            long next;
+            if (periodNanos == 0) {
+                next = now;
+            } else {
+                periods++;
+                next = firstDeadline + periods * periodNanos;
+                if (next < now) {
+                    periods = (now - firstDeadline) / periodNanos + 1;
+                    next = firstDeadline + periods * periodNanos;
                 }
+            }
+            deadline = next;
+            worker.timerWheel.schedule(timeout, next);
+            if (unsubscribed) {
+                worker.timerWheel.cancel(timeout);
+            }
+        }
 
-            });
+        @Override
+        public void unsubscribe() {
+            if (!unsubscribed) {
+                unsubscribed = true;
+                worker.timerWheel.cancel(timeout);
+                worker.innerSubscription.remove(this);
+            }
         }
 
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
     }
 
-    private static void assertThatTheDelayIsValidForTheSwingTimer(long delay) {
-        if (delay < 0 || delay > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException(String.format("The swing timer only accepts non-negative delays up to %d milliseconds.", Integer.MAX_VALUE));
+    /**
+     * Delays must fit into an int of milliseconds, as they did when this scheduler used the Swing timer. Negative
+     * delays count as 0.
+     */
+    /* package */static void assertThatTheDelayIsValid(long delayTime, TimeUnit unit) {
+        if (unit.toMillis(delayTime) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("The delay must fit into an int of milliseconds, i.e. be at most %d milliseconds.", Integer.MAX_VALUE));
         }
     }
 }
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.exceptions.Exceptions;
+
+/**
+ * A hashed timer wheel that hands expired tasks to the event dispatch thread.
+ * <p>
+ * The wheel is advanced by a single daemon thread that only runs while timeouts are pending. All
+ * timeouts expiring on the same tick are handed to the EDT executor as one batch. Scheduling and
+ * cancelling are O(1); deadlines are rounded up to the next tick, so a timeout never fires early but may
+ * fire up to one tick late.
+ */
+/* package */final class SwingTimerWheel {
+
+    /** The default tick resolution, a quarter of a 60 Hz frame. */
+    static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final long IDLE_TIMEOUT_MILLIS = 1000;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Executor edtExecutor;
+    private final long tickNanos;
+    private final int mask;
+    private final long startNanos;
+
+    // all state below is guarded by 'this'
+    private final Timeout[] heads;
+    private final Timeout[] tails;
+    private long tick;
+    private int pending;
+    private Thread ticker;
+
+    SwingTimerWheel(Executor edtExecutor) {
+        this(edtExecutor, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param wheelSize
+     *            the number of buckets, must be a power of two
+     */
+    SwingTimerWheel(Executor edtExecutor, long tickNanos, int wheelSize) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tickNanos > 0 required but it was " + tickNanos);
+        }
+        if (wheelSize <= 0 || (wheelSize & (wheelSize - 1)) != 0) {
+            throw new IllegalArgumentException("wheelSize must be a positive power of two but it was " + wheelSize);
+        }
+        this.edtExecutor = edtExecutor;
+        this.tickNanos = tickNanos;
+        this.mask = wheelSize - 1;
+        this.heads = new Timeout[wheelSize];
+        this.tails = new Timeout[wheelSize];
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Schedules the task to be handed to the EDT executor once the delay has elapsed.
+     */
+    Timeout schedule(Runnable task, long delayNanos) {
+        Timeout timeout = new Timeout(task);
+        schedule(timeout, System.nanoTime() + Math.max(0, delayNanos));
+        return timeout;
+    }
+
+    /**
+     * Puts a timeout that is not currently in the wheel back into it, expiring at the given
+     * {@link System#nanoTime()} deadline.
+     */
+    synchronized void schedule(Timeout timeout, long deadlineNanos) {
+        if (timeout.bucket >= 0) {
+            throw new IllegalStateException("The timeout is already scheduled");
+        }
+        if (pending == 0) {
+            // nothing is in the wheel, so it is safe to skip the ticks that passed while idle
+            tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos);
+        }
+        long target = (deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+        if (target < tick) {
+            target = tick;
+        }
+        timeout.remainingRounds = (target - tick) / heads.length;
+        link(timeout, (int) (target & mask));
+
+        if (++pending == 1) {
+            if (ticker == null) {
+                ticker = new Thread(new Ticker(), "RxSwingTimerWheel-" + THREAD_COUNTER.incrementAndGet());
+                ticker.setDaemon(true);
+                ticker.start();
+            } else {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Removes the timeout from the wheel in O(1).
+     *
+     * @return true if the timeout was still pending
+     */
+    synchronized boolean cancel(Timeout timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        pending--;
+        return true;
+    }
+
+    /* package for unit test */synchronized int pending() {
+        return pending;
+    }
+
+    private void link(Timeout timeout, int bucket) {
+        timeout.bucket = bucket;
+        Timeout tail = tails[bucket];
+        timeout.prev = tail;
+        if (tail == null) {
+            heads[bucket] = timeout;
+        } else {
+            tail.next = timeout;
+        }
+        tails[bucket] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        int bucket = timeout.bucket;
+        if (timeout.prev == null) {
+            heads[bucket] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next == null) {
+            tails[bucket] = timeout.prev;
+        } else {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    /**
+     * Removes the timeouts of the current tick from the wheel.
+     *
+     * @return the expired task, a batch of expired tasks or null if nothing expired
+     */
+    private Runnable expireCurrentTick() {
+        Runnable first = null;
+        Batch batch = null;
+        Timeout timeout = heads[(int) (tick & mask)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                unlink(timeout);
+                pending--;
+                if (first == null) {
+                    // a single expired task is handed over as is, without allocating a batch
+                    first = timeout.task;
+                } else {
+                    if (batch == null) {
+                        batch = new Batch();
+                        batch.tasks.add(first);
+                    }
+                    batch.tasks.add(timeout.task);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+        tick++;
+        return batch != null ? batch : first;
+    }
+
+    /**
+     * A task waiting in the wheel.
+     */
+    static final class Timeout {
+        final Runnable task;
+        // guarded by the wheel
+        long remainingRounds;
+        int bucket = -1;
+        Timeout prev;
+        Timeout next;
+
+        Timeout(Runnable task) {
+            this.task = task;
+        }
+    }
+
+    private static final class Batch implements Runnable {
+        final List<Runnable> tasks = new ArrayList<Runnable>(4);
+
+        @Override
+        public void run() {
+            Throwable error = null;
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    tasks.get(i).run();
+                } catch (Throwable e) {
+                    // run the rest of the batch before reporting the first failure
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+            }
+            if (error != null) {
+                throw Exceptions.propagate(error);
+            }
+        }
+    }
+
+    private final class Ticker implements Runnable {
+        @Override
+        public void run() {
+            for (;;) {
+                Runnable expired;
+                synchronized (SwingTimerWheel.this) {
+                    try {
+                        if (!awaitNextTick()) {
+                            ticker = null;
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        // the ticker is private to the wheel, nobody is expected to interrupt it
+                        continue;
+                    }
+                    expired = expireCurrentTick();
+                }
+                if (expired != null) {
+                    edtExecutor.execute(expired);
+                }
+            }
+        }
+
+        /**
+         * @return false if the wheel has been idle for long enough to stop the ticker
+         */
+        private boolean awaitNextTick() throws InterruptedException {
+            for (;;) {
+                if (pending == 0) {
+                    SwingTimerWheel.this.wait(IDLE_TIMEOUT_MILLIS);
+                    if (pending == 0) {
+                        return false;
+                    }
+                    continue;
+                }
+                long waitNanos = startNanos + tick * tickNanos - System.nanoTime();
+                if (waitNanos <= 0) {
+                    return true;
+                }
+                TimeUnit.NANOSECONDS.timedWait(SwingTimerWheel.this, waitNanos);
+            }
+        }
+    }
+}
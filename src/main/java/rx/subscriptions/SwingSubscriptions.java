@@ -15,8 +15,6 @@
  */
 package rx.subscriptions;
 
-import javax.swing.SwingUtilities;
-
 import rx.Scheduler.Worker;
 import rx.Subscription;
 import rx.functions.Action0;
@@ -42,7 +40,7 @@ public final class SwingSubscriptions {
         return Subscriptions.create(new Action0() {
             @Override
             public void call() {
-                if (SwingUtilities.isEventDispatchThread()) {
+                if (SwingScheduler.isEventDispatchThread()) {
                     unsubscribe.call();
                 } else {
                     final Worker inner = SwingScheduler.getInstance().createWorker();
@@ -0,0 +1,358 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import rx.functions.Action0;
+
+/**
+ * Opt-in instrumentation of the actions that the {@link rx.schedulers.SwingScheduler} runs on the Swing UI thread.
+ * <p>
+ * While a monitor is installed, it records for every action
+ * <ul>
+ * <li>the queue-to-run latency, i.e. the time from when a deferred action was scheduled, or a delayed action
+ * became due, until it started to run. Actions that run immediately have no queue latency.</li>
+ * <li>the execution time. Actions scheduled from within a running action count towards both.</li>
+ * </ul>
+ * Both are kept in {@link LatencyHistogram}s. A watchdog thread checks the running action a few times per
+ * stall threshold; once an action has been running for longer than the threshold, the stack of the Swing UI
+ * thread is captured into a {@link StallReport}, which shows where the action is stuck.
+ * <p>
+ * The installed monitor is also registered with the platform MBean server as {@value #OBJECT_NAME}, see
+ * {@link EdtMonitorMBean}.
+ * <p>
+ * When no monitor is installed, the cost for the scheduler is one volatile read per action.
+ */
+public final class EdtMonitor implements EdtMonitorMBean {
+
+    public static final String OBJECT_NAME = "rx.swing:type=EdtMonitor";
+
+    private static final long DEFAULT_STALL_THRESHOLD_MILLIS = 100;
+    private static final int MAX_RECENT_STALLS = 16;
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
+    private static volatile EdtMonitor installed;
+
+    /**
+     * Installs a monitor with a stall threshold of 100 milliseconds, replacing the current one.
+     *
+     * @return the installed monitor
+     */
+    public static EdtMonitor install() {
+        return install(DEFAULT_STALL_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Installs a new monitor, replacing the current one, and registers it with the platform MBean server.
+     *
+     * @param stallThreshold
+     *            the execution time after which an action is reported as stalling the Swing UI thread
+     * @param unit
+     *            the time unit of <code>stallThreshold</code>
+     * @return the installed monitor
+     */
+    public static synchronized EdtMonitor install(long stallThreshold, TimeUnit unit) {
+        if (stallThreshold <= 0) {
+            throw new IllegalArgumentException("stallThreshold > 0 required but it was " + stallThreshold);
+        }
+        uninstall();
+        EdtMonitor monitor = new EdtMonitor(unit.toNanos(stallThreshold));
+        registerMBean(monitor);
+        installed = monitor;
+        monitor.startWatchdog();
+        return monitor;
+    }
+
+    /**
+     * Stops the current monitor, if any, and unregisters it from the platform MBean server.
+     */
+    public static synchronized void uninstall() {
+        EdtMonitor monitor = installed;
+        if (monitor != null) {
+            installed = null;
+            monitor.watchdog.interrupt();
+            unregisterMBean();
+        }
+    }
+
+    /**
+     * @return the installed monitor or null if there is none
+     */
+    public static EdtMonitor getInstalled() {
+        return installed;
+    }
+
+    private final long stallThresholdNanos;
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+    private final AtomicLong actionCount = new AtomicLong();
+    private final AtomicLong stallCount = new AtomicLong();
+    private final AtomicLong reportedStart = new AtomicLong(IDLE);
+    // guarded by itself
+    private final Deque<StallReport> recentStalls = new ArrayDeque<StallReport>();
+    private final Thread watchdog;
+
+    // written by the Swing UI thread, read by the watchdog
+    private volatile Thread currentThread;
+    private volatile Action0 currentAction;
+    private volatile long currentStart = IDLE;
+    // only accessed by the Swing UI thread
+    private int depth;
+
+    private EdtMonitor(long stallThresholdNanos) {
+        this.stallThresholdNanos = stallThresholdNanos;
+        this.watchdog = new Thread(new Watchdog(), "RxSwingEdtMonitor");
+        this.watchdog.setDaemon(true);
+    }
+
+    private void startWatchdog() {
+        watchdog.start();
+    }
+
+    /**
+     * Runs an action that was deferred to the Swing UI thread and records its timings. This is the hook for
+     * schedulers and must be called on the Swing UI thread.
+     *
+     * @param action
+     *            the action to run
+     * @param queuedNanos
+     *            the {@link System#nanoTime()} at which the action was scheduled or became due
+     */
+    public void execute(Action0 action, long queuedNanos) {
+        long start = System.nanoTime();
+        queueLatency.record(start - queuedNanos);
+        run(action, start);
+    }
+
+    /**
+     * Runs an action that was scheduled on the Swing UI thread and runs immediately, and records its
+     * execution time. This is the hook for schedulers and must be called on the Swing UI thread.
+     */
+    public void execute(Action0 action) {
+        run(action, System.nanoTime());
+    }
+
+    private void run(Action0 action, long start) {
+        boolean outermost = depth++ == 0;
+        if (outermost) {
+            currentThread = Thread.currentThread();
+            currentAction = action;
+            currentStart = start;
+        }
+        try {
+            action.call();
+        } finally {
+            depth--;
+            long duration = System.nanoTime() - start;
+            executionTime.record(duration);
+            actionCount.incrementAndGet();
+            if (outermost) {
+                currentStart = IDLE;
+                currentAction = null;
+                if (duration >= stallThresholdNanos && reportedStart.getAndSet(start) != start) {
+                    // finished between two checks of the watchdog, too late for a stack trace
+                    addStall(new StallReport(describe(action), System.currentTimeMillis(), duration, NO_STACK_TRACE));
+                }
+            }
+        }
+    }
+
+    private void checkForStall() {
+        long start = currentStart;
+        if (start == IDLE || System.nanoTime() - start < stallThresholdNanos || reportedStart.get() == start) {
+            return;
+        }
+        Action0 action = currentAction;
+        Thread thread = currentThread;
+        StackTraceElement[] stackTrace = thread.getStackTrace();
+        long duration = System.nanoTime() - start;
+        // only report if the stack still belongs to the same action
+        if (action != null && currentStart == start && reportedStart.getAndSet(start) != start) {
+            addStall(new StallReport(describe(action), System.currentTimeMillis(), duration, stackTrace));
+        }
+    }
+
+    private void addStall(StallReport report) {
+        stallCount.incrementAndGet();
+        synchronized (recentStalls) {
+            if (recentStalls.size() == MAX_RECENT_STALLS) {
+                recentStalls.removeFirst();
+            }
+            recentStalls.addLast(report);
+        }
+    }
+
+    private static String describe(Action0 action) {
+        return action.getClass().getName();
+    }
+
+    /**
+     * @return the time from scheduling until running of deferred actions, in nanoseconds
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * @return the execution time of all actions, in nanoseconds
+     */
+    public LatencyHistogram getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * @return the most recent stalls, oldest first
+     */
+    public List<StallReport> getRecentStallReports() {
+        synchronized (recentStalls) {
+            return new ArrayList<StallReport>(recentStalls);
+        }
+    }
+
+    @Override
+    public long getActionCount() {
+        return actionCount.get();
+    }
+
+    @Override
+    public long getQueueLatencyMedianMicros() {
+        return micros(queueLatency.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getQueueLatency99thPercentileMicros() {
+        return micros(queueLatency.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getQueueLatency999thPercentileMicros() {
+        return micros(queueLatency.getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public long getQueueLatencyMaxMicros() {
+        return micros(queueLatency.getMax());
+    }
+
+    @Override
+    public long getExecutionTimeMedianMicros() {
+        return micros(executionTime.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getExecutionTime99thPercentileMicros() {
+        return micros(executionTime.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getExecutionTime999thPercentileMicros() {
+        return micros(executionTime.getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public long getExecutionTimeMaxMicros() {
+        return micros(executionTime.getMax());
+    }
+
+    @Override
+    public long getStallThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stallThresholdNanos);
+    }
+
+    @Override
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    @Override
+    public String[] getRecentStalls() {
+        List<StallReport> reports = getRecentStallReports();
+        String[] result = new String[reports.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = reports.get(i).toString();
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        queueLatency.reset();
+        executionTime.reset();
+        actionCount.set(0);
+        stallCount.set(0);
+        synchronized (recentStalls) {
+            recentStalls.clear();
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static void registerMBean(EdtMonitor monitor) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                // left behind by a monitor of another class loader
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(monitor, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the EdtMonitor MBean", e);
+        }
+    }
+
+    private static void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister the EdtMonitor MBean", e);
+        }
+    }
+
+    private final class Watchdog implements Runnable {
+        @Override
+        public void run() {
+            long pollMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(stallThresholdNanos) / 4);
+            while (installed == EdtMonitor.this) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    // uninstalled
+                    return;
+                }
+                checkForStall();
+            }
+        }
+    }
+}
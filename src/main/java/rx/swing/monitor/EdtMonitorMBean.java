@@ -0,0 +1,55 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+/**
+ * The JMX view of the {@link EdtMonitor}, registered as {@value EdtMonitor#OBJECT_NAME} while it is installed.
+ * All durations are in microseconds.
+ */
+public interface EdtMonitorMBean {
+
+    long getActionCount();
+
+    long getQueueLatencyMedianMicros();
+
+    long getQueueLatency99thPercentileMicros();
+
+    long getQueueLatency999thPercentileMicros();
+
+    long getQueueLatencyMaxMicros();
+
+    long getExecutionTimeMedianMicros();
+
+    long getExecutionTime99thPercentileMicros();
+
+    long getExecutionTime999thPercentileMicros();
+
+    long getExecutionTimeMaxMicros();
+
+    long getStallThresholdMillis();
+
+    long getStallCount();
+
+    /**
+     * @return the most recent stall reports, oldest first, each with the captured stack trace
+     */
+    String[] getRecentStalls();
+
+    /**
+     * Clears the histograms, the stall count and the recent stalls.
+     */
+    void reset();
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An action that ran on the Swing UI thread for longer than the stall threshold of the {@link EdtMonitor}.
+ */
+public final class StallReport {
+
+    private final String action;
+    private final long timestampMillis;
+    private final long durationNanos;
+    private final StackTraceElement[] stackTrace;
+
+    /* package */StallReport(String action, long timestampMillis, long durationNanos, StackTraceElement[] stackTrace) {
+        this.action = action;
+        this.timestampMillis = timestampMillis;
+        this.durationNanos = durationNanos;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * @return the class name of the stalling action, which for anonymous classes points to where the action was
+     *         created
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * @return when the stall was detected, in milliseconds since the epoch
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return how long the action had been running when the stall was detected
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the stack of the Swing UI thread while the action was stalling, or an empty array if the action
+     *         completed before the stack could be captured
+     */
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(action).append(" ran for more than ").append(TimeUnit.NANOSECONDS.toMillis(durationNanos)).append(" ms");
+        for (StackTraceElement element : stackTrace) {
+            sb.append("\n\tat ").append(element);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+/**
+ * A subscription to a Swing event source recorded by the {@link SwingSubscriptionRegistry}.
+ */
+public final class SubscriptionReport {
+
+    private final String source;
+    private final String listener;
+    private final long subscribedMillis;
+    private final StackTraceElement[] stackTrace;
+
+    /* package */SubscriptionReport(String source, String listener, long subscribedMillis,
+            StackTraceElement[] stackTrace) {
+        this.source = source;
+        this.listener = listener;
+        this.subscribedMillis = subscribedMillis;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * @return the class name of the event source, followed by the name of the component if it has one
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the kind of listener that the Swing event source installed, e.g. <code>MouseListener</code>
+     */
+    public String getListener() {
+        return listener;
+    }
+
+    /**
+     * @return when the subscription was made, in milliseconds since the epoch
+     */
+    public long getSubscribedMillis() {
+        return subscribedMillis;
+    }
+
+    /**
+     * @return the stack of the thread that subscribed, i.e. where the subscription was made
+     */
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(listener).append(" subscribed to ").append(source);
+        for (StackTraceElement element : stackTrace) {
+            sb.append("\n\tat ").append(element);
+        }
+        return sb.toString();
+    }
+}
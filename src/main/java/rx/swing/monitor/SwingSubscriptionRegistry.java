@@ -0,0 +1,321 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+import java.awt.Component;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Scheduler.Worker;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.schedulers.SwingScheduler;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Opt-in tracking of the subscriptions to the Swing event sources, to find subscriptions that are never
+ * unsubscribed.
+ * <p>
+ * The listener of a source is only removed when its last subscription is unsubscribed. A forgotten subscription
+ * keeps its subscriber reachable from the component, and everything the subscriber refers to, often the whole
+ * dialog the component was part of. While a registry is installed, it records every subscription to a source
+ * with the stack of the code that subscribed, holding the sources and the subscriptions weakly. The stack is
+ * captured on the subscribing thread, before the subscription moves to the Swing UI thread, so it shows the
+ * call that subscribed from any thread. Subscriptions made from within other schedulers, e.g. by an
+ * <code>observeOn</code> or <code>switchMap</code> on another thread, show the scheduler's thread instead. When
+ * a component with live subscriptions becomes undisplayable, e.g. because its window was disposed, and stays
+ * undisplayable for the grace period, its subscriptions are reported as leaks and, if requested, unsubscribed.
+ * <p>
+ * Components that are only removed from their parent for a while, e.g. by a card layout, become undisplayable
+ * as well. The grace period must be long enough for them to be added again, or they must not be auto-disposed.
+ * <p>
+ * When no registry is installed, the cost for the sources is one volatile read per subscription.
+ */
+public final class SwingSubscriptionRegistry {
+
+    private static final long DEFAULT_GRACE_PERIOD_MILLIS = 1000;
+    private static final int MAX_RECENT_LEAKS = 64;
+
+    private static volatile SwingSubscriptionRegistry installed;
+
+    /**
+     * Installs a registry with a grace period of one second that only reports leaks, replacing the current one.
+     *
+     * @return the installed registry
+     */
+    public static SwingSubscriptionRegistry install() {
+        return install(DEFAULT_GRACE_PERIOD_MILLIS, TimeUnit.MILLISECONDS, false);
+    }
+
+    /**
+     * Installs a new registry, replacing the current one. Only the subscriptions made from now on are tracked.
+     *
+     * @param gracePeriod
+     *            how long a component has to stay undisplayable until its subscriptions are leaks
+     * @param unit
+     *            the time unit of <code>gracePeriod</code>
+     * @param autoDispose
+     *            whether to unsubscribe the leaked subscriptions
+     * @return the installed registry
+     */
+    public static synchronized SwingSubscriptionRegistry install(long gracePeriod, TimeUnit unit, boolean autoDispose) {
+        if (gracePeriod < 0) {
+            throw new IllegalArgumentException("gracePeriod >= 0 required but it was " + gracePeriod);
+        }
+        uninstall();
+        SwingSubscriptionRegistry registry = new SwingSubscriptionRegistry(unit.toNanos(gracePeriod), autoDispose);
+        installed = registry;
+        return registry;
+    }
+
+    /**
+     * Removes the current registry, if any, and stops tracking the components.
+     */
+    public static synchronized void uninstall() {
+        SwingSubscriptionRegistry registry = installed;
+        if (registry != null) {
+            installed = null;
+            registry.stop();
+        }
+    }
+
+    /**
+     * @return the installed registry or null if there is none
+     */
+    public static SwingSubscriptionRegistry getInstalled() {
+        return installed;
+    }
+
+    private final long gracePeriodNanos;
+    private final boolean autoDispose;
+    private final Worker worker = SwingScheduler.getInstance().createWorker();
+    private final HierarchyListener displayabilityListener = new DisplayabilityListener();
+    private final AtomicLong leakCount = new AtomicLong();
+    // guarded by itself, the sources are held weakly
+    private final Map<Object, List<Registration>> registrations = new WeakHashMap<Object, List<Registration>>();
+    // guarded by itself
+    private final Deque<SubscriptionReport> recentLeaks = new ArrayDeque<SubscriptionReport>();
+
+    private SwingSubscriptionRegistry(long gracePeriodNanos, boolean autoDispose) {
+        this.gracePeriodNanos = gracePeriodNanos;
+        this.autoDispose = autoDispose;
+    }
+
+    /**
+     * Records a subscription to a Swing event source. This is the hook for the event sources.
+     *
+     * @param source
+     *            the event source
+     * @param listenerKind
+     *            the kind of listener that the source installs, described by its <code>toString()</code>
+     * @param stackTrace
+     *            the stack of the code that subscribed, see {@link #subscribingStackTrace()}, or null to use the
+     *            current stack
+     * @param subscription
+     *            the subscription of the subscriber, which is only held weakly
+     * @return a subscription that removes the record again, which must be unsubscribed with the subscription
+     */
+    public Subscription register(Object source, Object listenerKind, StackTraceElement[] stackTrace,
+            Subscription subscription) {
+        final Registration registration = new Registration(new SubscriptionReport(describe(source),
+                String.valueOf(listenerKind), System.currentTimeMillis(),
+                stackTrace == null ? subscribingStackTrace() : stackTrace), subscription);
+        final WeakReference<Object> sourceReference = new WeakReference<Object>(source);
+        synchronized (registrations) {
+            List<Registration> ofSource = registrations.get(source);
+            if (ofSource == null) {
+                ofSource = new ArrayList<Registration>(2);
+                registrations.put(source, ofSource);
+                if (source instanceof Component) {
+                    ((Component) source).addHierarchyListener(displayabilityListener);
+                }
+            }
+            ofSource.add(registration);
+        }
+        return Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                Object source = sourceReference.get();
+                if (source != null) {
+                    unregister(source, registration);
+                }
+            }
+        });
+    }
+
+    private void unregister(Object source, Registration registration) {
+        synchronized (registrations) {
+            List<Registration> ofSource = registrations.get(source);
+            if (ofSource == null || !ofSource.remove(registration) || !ofSource.isEmpty()) {
+                return;
+            }
+            registrations.remove(source);
+            if (source instanceof Component) {
+                ((Component) source).removeHierarchyListener(displayabilityListener);
+            }
+        }
+    }
+
+    private void stop() {
+        worker.unsubscribe();
+        synchronized (registrations) {
+            for (Object source : registrations.keySet()) {
+                if (source instanceof Component) {
+                    ((Component) source).removeHierarchyListener(displayabilityListener);
+                }
+            }
+            registrations.clear();
+        }
+    }
+
+    private void checkForLeaks(Component component) {
+        List<Registration> leaked = new ArrayList<Registration>();
+        synchronized (registrations) {
+            List<Registration> ofSource = registrations.get(component);
+            if (ofSource == null) {
+                return;
+            }
+            for (Registration registration : ofSource) {
+                Subscription subscription = registration.subscription.get();
+                if (!registration.reported && subscription != null && !subscription.isUnsubscribed()) {
+                    registration.reported = true;
+                    leaked.add(registration);
+                }
+            }
+        }
+        for (Registration registration : leaked) {
+            leakCount.incrementAndGet();
+            synchronized (recentLeaks) {
+                if (recentLeaks.size() == MAX_RECENT_LEAKS) {
+                    recentLeaks.removeFirst();
+                }
+                recentLeaks.addLast(registration.report);
+            }
+            Subscription subscription = registration.subscription.get();
+            if (autoDispose && subscription != null) {
+                subscription.unsubscribe();
+            }
+        }
+    }
+
+    /**
+     * @return the subscriptions that have not been unsubscribed yet
+     */
+    public List<SubscriptionReport> getLiveSubscriptions() {
+        List<SubscriptionReport> result = new ArrayList<SubscriptionReport>();
+        synchronized (registrations) {
+            for (List<Registration> ofSource : registrations.values()) {
+                for (Registration registration : ofSource) {
+                    Subscription subscription = registration.subscription.get();
+                    if (subscription != null && !subscription.isUnsubscribed()) {
+                        result.add(registration.report);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of subscriptions that were reported as leaks
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * @return the most recently leaked subscriptions, oldest first
+     */
+    public List<SubscriptionReport> getRecentLeaks() {
+        synchronized (recentLeaks) {
+            return new ArrayList<SubscriptionReport>(recentLeaks);
+        }
+    }
+
+    /**
+     * @return whether leaked subscriptions are unsubscribed
+     */
+    public boolean isAutoDispose() {
+        return autoDispose;
+    }
+
+    private static String describe(Object source) {
+        String name = source instanceof Component ? ((Component) source).getName() : null;
+        return name == null ? source.getClass().getName() : source.getClass().getName() + " '" + name + "'";
+    }
+
+    /**
+     * Captures the stack of the calling thread, to be passed to {@link #register}. The sources call it when they
+     * are subscribed to, before the subscription moves to the Swing UI thread.
+     *
+     * @return the current stack without the leading frames of the registry, the sources and RxJava
+     */
+    public static StackTraceElement[] subscribingStackTrace() {
+        StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        int first = 0;
+        while (first < stackTrace.length && isSubscriptionFrame(stackTrace[first].getClassName())) {
+            first++;
+        }
+        return Arrays.copyOfRange(stackTrace, first, stackTrace.length);
+    }
+
+    private static boolean isSubscriptionFrame(String className) {
+        return className.equals(SwingSubscriptionRegistry.class.getName()) || className.startsWith("rx.swing.sources.")
+                || className.equals("rx.Observable") || className.startsWith("rx.Observable$")
+                || className.startsWith("rx.internal.");
+    }
+
+    private static final class Registration {
+        final SubscriptionReport report;
+        final WeakReference<Subscription> subscription;
+        // guarded by the registrations
+        boolean reported;
+
+        Registration(SubscriptionReport report, Subscription subscription) {
+            this.report = report;
+            this.subscription = new WeakReference<Subscription>(subscription);
+        }
+    }
+
+    private final class DisplayabilityListener implements HierarchyListener {
+        @Override
+        public void hierarchyChanged(HierarchyEvent e) {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0 || e.getComponent().isDisplayable()) {
+                return;
+            }
+            final WeakReference<Component> component = new WeakReference<Component>(e.getComponent());
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    Component undisplayable = component.get();
+                    if (undisplayable != null && !undisplayable.isDisplayable()) {
+                        checkForLeaks(undisplayable);
+                    }
+                }
+            }, gracePeriodNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
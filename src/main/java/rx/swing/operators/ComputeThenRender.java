@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.operators;
+
+import java.util.List;
+
+import rx.Observable;
+import rx.Observable.Transformer;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+/**
+ * The reactive counterpart of {@link javax.swing.SwingWorker}: runs a computation per trigger on a scheduler and
+ * renders its values on the Swing UI thread in chunks.
+ * <p>
+ * Where a <code>SwingWorker</code> publishes values that its <code>process</code> method receives in chunks,
+ * the computation is an observable whose values, results as well as progress, are delivered on the Swing UI
+ * thread as lists. All values that arrive during one turn of the Swing UI thread form one chunk, so the UI is
+ * updated once per turn however fast the computation emits. Unlike the fixed pool of a
+ * <code>SwingWorker</code>, the computation runs on any scheduler, and the chunks are bounded: at most
+ * <code>capacity</code> values are buffered, a faster computation is slowed down by backpressure.
+ * <p>
+ * The latest trigger wins: a new trigger unsubscribes from the computation of the previous one, and chunks of
+ * the previous computation that have not been rendered yet are dropped. E.g.
+ * <pre>
+ * SwingObservable.fromButtonAction(searchButton)
+ *         .compose(ComputeThenRender.create(search, Schedulers.io(), 256))
+ *         .subscribe(appendToResultList);
+ * </pre>
+ */
+public final class ComputeThenRender {
+
+    private ComputeThenRender() {
+        // no instances
+    }
+
+    /**
+     * @param computation
+     *            returns the computation for a trigger, which must honour backpressure
+     * @param scheduler
+     *            the scheduler to subscribe to the computations on
+     * @param capacity
+     *            the maximum number of values to buffer until they are rendered, i.e. the maximum chunk size
+     * @return a transformer of triggers into the chunks of values of the computation of the latest trigger,
+     *         emitted on the Swing UI thread
+     */
+    public static <T, R> Transformer<T, List<R>> create(final Func1<? super T, ? extends Observable<R>> computation,
+            final Scheduler scheduler, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        return new Transformer<T, List<R>>() {
+            @Override
+            public Observable<List<R>> call(Observable<T> triggers) {
+                return triggers.switchMap(new Func1<T, Observable<List<R>>>() {
+                    @Override
+                    public Observable<List<R>> call(T trigger) {
+                        return computation.call(trigger)
+                                .subscribeOn(scheduler)
+                                .lift(new OperatorRenderChunks<R>(capacity));
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Observable.Operator;
+import rx.Producer;
+import rx.Scheduler.Worker;
+import rx.Subscriber;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Action0;
+import rx.schedulers.SwingScheduler;
+
+/**
+ * Buffers the values of a computation and hands them to the Swing UI thread in chunks, at most one per turn of
+ * the Swing UI thread: all values that arrive until the pending UI events have been processed form one chunk.
+ * <p>
+ * At most <code>capacity</code> values are requested from the computation that have not been handed on yet, so
+ * a computation that is faster than the Swing UI thread is slowed down instead of filling the heap.
+ */
+/* package */final class OperatorRenderChunks<R> implements Operator<List<R>, R> {
+
+    private static final Object NULL = new Object();
+
+    private final int capacity;
+
+    OperatorRenderChunks(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Subscriber<? super R> call(Subscriber<? super List<R>> child) {
+        ChunkSubscriber<R> parent = new ChunkSubscriber<R>(child, capacity);
+        parent.init();
+        return parent;
+    }
+
+    private static final class ChunkSubscriber<R> extends Subscriber<R> implements Action0 {
+        private final Subscriber<? super List<R>> child;
+        private final int capacity;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private final Worker worker = SwingScheduler.getInstance().createWorker();
+        private volatile boolean done;
+        private volatile Throwable error;
+        // only accessed by the Swing UI thread
+        private boolean terminated;
+
+        ChunkSubscriber(Subscriber<? super List<R>> child, int capacity) {
+            this.child = child;
+            this.capacity = capacity;
+        }
+
+        void init() {
+            child.add(this);
+            child.add(worker);
+            child.setProducer(new Producer() {
+                @Override
+                public void request(long n) {
+                    if (n > 0) {
+                        addRequested(n);
+                        scheduleDrain();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onStart() {
+            request(capacity);
+        }
+
+        @Override
+        public void onNext(R value) {
+            if (done) {
+                return;
+            }
+            if (buffered.incrementAndGet() > capacity) {
+                unsubscribe();
+                onError(new MissingBackpressureException("The computation emitted more than the " + capacity
+                        + " requested values"));
+                return;
+            }
+            queue.offer(value == null ? NULL : value);
+            scheduleDrain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+            done = true;
+            scheduleDrain();
+        }
+
+        @Override
+        public void onCompleted() {
+            done = true;
+            scheduleDrain();
+        }
+
+        /**
+         * Adds to the requested amount, capped at Long.MAX_VALUE.
+         */
+        private void addRequested(long n) {
+            for (;;) {
+                long current = requested.get();
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private void scheduleDrain() {
+            if (drainScheduled.compareAndSet(false, true)) {
+                // a delayed action never runs inline, it waits for the pending UI events
+                worker.schedule(this, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Hands the buffered values on as one chunk, on the Swing UI thread.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void call() {
+            drainScheduled.set(false);
+            if (terminated || child.isUnsubscribed()) {
+                return;
+            }
+            boolean completed = done;
+            Throwable e = error;
+            if (e != null) {
+                terminated = true;
+                queue.clear();
+                child.onError(e);
+                return;
+            }
+            if (!queue.isEmpty()) {
+                if (requested.get() == 0) {
+                    // drained again when the child requests
+                    return;
+                }
+                List<R> chunk = new ArrayList<R>();
+                Object value;
+                while ((value = queue.poll()) != null) {
+                    chunk.add(value == NULL ? null : (R) value);
+                }
+                buffered.addAndGet(-chunk.size());
+                if (requested.get() != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                child.onNext(chunk);
+                if (!completed) {
+                    request(chunk.size());
+                }
+            }
+            if (completed && queue.isEmpty() && !child.isUnsubscribed()) {
+                terminated = true;
+                child.onCompleted();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The binary format of a recording.
+ * <p>
+ * A recording starts with {@link #MAGIC} and {@link #VERSION}, followed by one record per event:
+ * <ul>
+ * <li>the record type, a byte</li>
+ * <li>the id of the target, a variable-length int</li>
+ * <li>the microseconds since the previous record, a variable-length long</li>
+ * <li>the fields of the event, depending on the record type</li>
+ * </ul>
+ * Variable-length numbers take 7 bits per byte, so most ids, time deltas and coordinates take one or two
+ * bytes. Signed numbers are zig-zag encoded first, so small negative numbers are short as well.
+ */
+/* package */final class EventFormat {
+
+    static final int MAGIC = 0x52785357;
+    static final byte VERSION = 1;
+
+    /**
+     * id, modifiersEx, x, y, clickCount, button, popupTrigger
+     */
+    static final byte MOUSE = 1;
+
+    /**
+     * the fields of {@link #MOUSE}, then scrollType, scrollAmount, wheelRotation, preciseWheelRotation
+     */
+    static final byte MOUSE_WHEEL = 2;
+
+    /**
+     * id, modifiersEx, keyCode, keyChar, keyLocation
+     */
+    static final byte KEY = 3;
+
+    /**
+     * offset, removedLength, length of the insertedText, insertedText as chars
+     */
+    static final byte DOCUMENT_EDIT = 4;
+
+    private EventFormat() {
+        // no instances
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarInt(DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.replay;
+
+import static rx.swing.replay.EventFormat.writeSignedVarInt;
+import static rx.swing.replay.EventFormat.writeVarInt;
+import static rx.swing.replay.EventFormat.writeVarLong;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.subscriptions.CompositeSubscription;
+import rx.swing.sources.DocumentEdit;
+
+/**
+ * Records the events of Swing event sources into a compact binary stream, to be replayed by an
+ * {@link EventReplayer}, e.g. to reproduce a performance problem offline or to benchmark a whole UI pipeline
+ * with realistic input.
+ * <p>
+ * Each recorded stream is tagged with the id of its target, which the replayer maps to the component or
+ * document to dispatch the events to. Only the fields that are needed to recreate an event are written, as
+ * primitives, together with the time since the previous event; a mouse move typically takes 8 bytes.
+ * <p>
+ * Mouse, mouse wheel and key events are recorded from the observables of
+ * {@link rx.observables.SwingObservable#fromMouseEvents}, {@link rx.observables.SwingObservable#fromKeyEvents}
+ * and the like, document edits from {@link rx.observables.SwingObservable#fromDocumentEdits}. Other input
+ * events are skipped.
+ * <p>
+ * A recorder may be fed from any thread. If writing fails, all recordings are stopped and {@link #close()}
+ * throws the failure.
+ */
+public final class EventRecorder implements Closeable {
+
+    private final DataOutputStream out;
+    private final CompositeSubscription recordings = new CompositeSubscription();
+    // guarded by this
+    private boolean started;
+    private long lastRecordNanos;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Starts a recording by writing its header.
+     *
+     * @param out
+     *            the stream to write the recording to, closed with the recorder
+     */
+    public EventRecorder(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(EventFormat.MAGIC);
+        this.out.writeByte(EventFormat.VERSION);
+    }
+
+    /**
+     * Records the mouse, mouse wheel and key events of the given observable until the returned subscription is
+     * unsubscribed or the recorder is closed.
+     *
+     * @param target
+     *            the id of the component to replay the events to
+     */
+    public Subscription recordInputEvents(final int target, Observable<? extends InputEvent> events) {
+        return record(events.subscribe(new Action1<InputEvent>() {
+            @Override
+            public void call(InputEvent event) {
+                write(target, event);
+            }
+        }));
+    }
+
+    /**
+     * Records the document edits of the given observable until the returned subscription is unsubscribed or
+     * the recorder is closed.
+     *
+     * @param target
+     *            the id of the document to replay the edits to
+     */
+    public Subscription recordDocumentEdits(final int target, Observable<DocumentEdit> edits) {
+        return record(edits.subscribe(new Action1<DocumentEdit>() {
+            @Override
+            public void call(DocumentEdit edit) {
+                write(target, edit);
+            }
+        }));
+    }
+
+    private Subscription record(Subscription recording) {
+        recordings.add(recording);
+        return recording;
+    }
+
+    private synchronized void write(int target, InputEvent event) {
+        if (closed) {
+            return;
+        }
+        try {
+            if (event instanceof MouseEvent) {
+                MouseEvent mouseEvent = (MouseEvent) event;
+                boolean wheel = event instanceof MouseWheelEvent;
+                writeHeader(wheel ? EventFormat.MOUSE_WHEEL : EventFormat.MOUSE, target);
+                writeVarInt(out, mouseEvent.getID());
+                writeVarInt(out, mouseEvent.getModifiersEx());
+                writeSignedVarInt(out, mouseEvent.getX());
+                writeSignedVarInt(out, mouseEvent.getY());
+                writeVarInt(out, mouseEvent.getClickCount());
+                writeVarInt(out, mouseEvent.getButton());
+                out.writeBoolean(mouseEvent.isPopupTrigger());
+                if (wheel) {
+                    MouseWheelEvent wheelEvent = (MouseWheelEvent) event;
+                    writeVarInt(out, wheelEvent.getScrollType());
+                    writeVarInt(out, wheelEvent.getScrollAmount());
+                    writeSignedVarInt(out, wheelEvent.getWheelRotation());
+                    out.writeDouble(wheelEvent.getPreciseWheelRotation());
+                }
+            } else if (event instanceof KeyEvent) {
+                KeyEvent keyEvent = (KeyEvent) event;
+                writeHeader(EventFormat.KEY, target);
+                writeVarInt(out, keyEvent.getID());
+                writeVarInt(out, keyEvent.getModifiersEx());
+                writeVarInt(out, keyEvent.getKeyCode());
+                out.writeChar(keyEvent.getKeyChar());
+                writeVarInt(out, keyEvent.getKeyLocation());
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private synchronized void write(int target, DocumentEdit edit) {
+        if (closed) {
+            return;
+        }
+        try {
+            writeHeader(EventFormat.DOCUMENT_EDIT, target);
+            writeVarInt(out, edit.getOffset());
+            writeVarInt(out, edit.getRemovedLength());
+            String text = edit.getInsertedText().toString();
+            writeVarInt(out, text.length());
+            out.writeChars(text);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeHeader(byte type, int target) throws IOException {
+        long now = System.nanoTime();
+        if (!started) {
+            // the recording starts with its first event
+            started = true;
+            lastRecordNanos = now;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, now - lastRecordNanos));
+        out.writeByte(type);
+        writeVarInt(out, target);
+        writeVarLong(out, micros);
+        // advanced by the written time only, so the rounding errors do not add up
+        lastRecordNanos += TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+
+    private void fail(IOException e) {
+        failure = e;
+        closed = true;
+        recordings.unsubscribe();
+    }
+
+    /**
+     * Stops all recordings and closes the stream.
+     *
+     * @throws IOException
+     *             if the recording could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        recordings.unsubscribe();
+        IOException e;
+        synchronized (this) {
+            closed = true;
+            e = failure;
+        }
+        try {
+            out.close();
+        } catch (IOException closeFailure) {
+            if (e == null) {
+                e = closeFailure;
+            }
+        }
+        if (e != null) {
+            throw e;
+        }
+    }
+}
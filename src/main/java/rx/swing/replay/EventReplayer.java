@@ -0,0 +1,358 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.replay;
+
+import static rx.swing.replay.EventFormat.readSignedVarInt;
+import static rx.swing.replay.EventFormat.readVarInt;
+import static rx.swing.replay.EventFormat.readVarLong;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.KeyboardFocusManager;
+import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Producer;
+import rx.Scheduler.Worker;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.schedulers.SwingScheduler;
+
+/**
+ * Replays a recording of an {@link EventRecorder} by dispatching its events to components with
+ * {@link Component#dispatchEvent} and applying its document edits, on the Swing UI thread.
+ * <p>
+ * The events are replayed with their original spacing divided by a speed factor: 1 replays in real time,
+ * 10 ten times as fast, and {@link Double#POSITIVE_INFINITY} as fast as the Swing UI thread can take them, in
+ * bursts of all events that are due. The replayed events get the current time as their time stamp.
+ */
+public final class EventReplayer {
+
+    private final List<Record> records = new ArrayList<Record>();
+
+    /**
+     * Reads a whole recording into memory.
+     *
+     * @param in
+     *            the recording, which is read up to its end but not closed
+     * @throws IOException
+     *             if the recording cannot be read or is not a recording
+     */
+    public EventReplayer(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != EventFormat.MAGIC) {
+            throw new IOException("Not a recording of Swing events");
+        }
+        byte version = data.readByte();
+        if (version != EventFormat.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        long micros = 0;
+        int type;
+        while ((type = data.read()) >= 0) {
+            int target = readVarInt(data);
+            micros += readVarLong(data);
+            records.add(readRecord((byte) type, target, micros, data));
+        }
+    }
+
+    private static Record readRecord(byte type, int target, long micros, DataInputStream in) throws IOException {
+        switch (type) {
+        case EventFormat.MOUSE:
+        case EventFormat.MOUSE_WHEEL:
+            MouseRecord mouse = new MouseRecord(target, micros);
+            mouse.id = readVarInt(in);
+            mouse.modifiers = readVarInt(in);
+            mouse.x = readSignedVarInt(in);
+            mouse.y = readSignedVarInt(in);
+            mouse.clickCount = readVarInt(in);
+            mouse.button = readVarInt(in);
+            mouse.popupTrigger = in.readBoolean();
+            if (type == EventFormat.MOUSE_WHEEL) {
+                mouse.wheel = true;
+                mouse.scrollType = readVarInt(in);
+                mouse.scrollAmount = readVarInt(in);
+                mouse.wheelRotation = readSignedVarInt(in);
+                mouse.preciseWheelRotation = in.readDouble();
+            }
+            return mouse;
+        case EventFormat.KEY:
+            KeyRecord key = new KeyRecord(target, micros);
+            key.id = readVarInt(in);
+            key.modifiers = readVarInt(in);
+            key.keyCode = readVarInt(in);
+            key.keyChar = in.readChar();
+            key.keyLocation = readVarInt(in);
+            return key;
+        case EventFormat.DOCUMENT_EDIT:
+            EditRecord edit = new EditRecord(target, micros);
+            edit.offset = readVarInt(in);
+            edit.removedLength = readVarInt(in);
+            char[] text = new char[readVarInt(in)];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = in.readChar();
+            }
+            edit.insertedText = new String(text);
+            return edit;
+        default:
+            throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    /**
+     * @return the number of recorded events
+     */
+    public int getEventCount() {
+        return records.size();
+    }
+
+    /**
+     * @return the time from the start of the recording until the last event
+     */
+    public long getDuration(TimeUnit unit) {
+        return records.isEmpty() ? 0 : unit.convert(records.get(records.size() - 1).micros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Replays the recording once per subscription. The replay waits for the requests of the subscriber, so a
+     * slow subscriber slows it down.
+     *
+     * @param targets
+     *            returns the component or document for the id of a target of the recording
+     * @param speed
+     *            the factor to speed up the replay by, {@link Double#POSITIVE_INFINITY} for no delays at all
+     * @return an observable that dispatches the events on the Swing UI thread and emits each of them, the
+     *         {@link AWTEvent}s and {@link Document}s, after it was dispatched
+     */
+    public Observable<Object> replay(final Func1<Integer, ?> targets, final double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed > 0 required but it was " + speed);
+        }
+        return Observable.create(new OnSubscribe<Object>() {
+            @Override
+            public void call(Subscriber<? super Object> subscriber) {
+                Replay replay = new Replay(subscriber, targets, speed);
+                subscriber.add(replay.worker);
+                subscriber.setProducer(replay);
+            }
+        });
+    }
+
+    private final class Replay implements Producer, Action0 {
+        final Worker worker = SwingScheduler.getInstance().createWorker();
+        private final Subscriber<? super Object> subscriber;
+        private final Func1<Integer, ?> targets;
+        private final double speed;
+        private final AtomicLong requested = new AtomicLong();
+        // only accessed by the Swing UI thread
+        private boolean started;
+        private long startNanos;
+        private int index;
+        private boolean stepScheduled;
+        private boolean done;
+
+        Replay(Subscriber<? super Object> subscriber, Func1<Integer, ?> targets, double speed) {
+            this.subscriber = subscriber;
+            this.targets = targets;
+            this.speed = speed;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n > 0 && addRequested(n) == 0) {
+                // a delayed action never runs inline, so a request from within onNext does not reenter the loop
+                worker.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        if (!stepScheduled) {
+                            Replay.this.call();
+                        }
+                    }
+                }, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private long addRequested(long n) {
+            for (;;) {
+                long current = requested.get();
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    return current;
+                }
+            }
+        }
+
+        /**
+         * Dispatches the events that are due, on the Swing UI thread.
+         */
+        @Override
+        public void call() {
+            stepScheduled = false;
+            if (done) {
+                // e.g. a request after the end of the recording
+                return;
+            }
+            if (!started) {
+                started = true;
+                startNanos = System.nanoTime();
+            }
+            try {
+                while (index < records.size() && !subscriber.isUnsubscribed()) {
+                    if (requested.get() == 0) {
+                        // continued by the next request
+                        return;
+                    }
+                    Record record = records.get(index);
+                    long delayNanos = startNanos + (long) (record.micros * 1000 / speed) - System.nanoTime();
+                    if (delayNanos > 0) {
+                        stepScheduled = true;
+                        worker.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                    index++;
+                    Object dispatched = record.dispatch(targets.call(record.target));
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    subscriber.onNext(dispatched);
+                }
+            } catch (Throwable e) {
+                done = true;
+                subscriber.onError(e);
+                return;
+            }
+            done = true;
+            if (!subscriber.isUnsubscribed()) {
+                subscriber.onCompleted();
+            }
+        }
+    }
+
+    private abstract static class Record {
+        final int target;
+        final long micros;
+
+        Record(int target, long micros) {
+            this.target = target;
+            this.micros = micros;
+        }
+
+        /**
+         * @return the dispatched event
+         */
+        abstract Object dispatch(Object target) throws Exception;
+    }
+
+    private static final class MouseRecord extends Record {
+        int id;
+        int modifiers;
+        int x;
+        int y;
+        int clickCount;
+        int button;
+        boolean popupTrigger;
+        boolean wheel;
+        int scrollType;
+        int scrollAmount;
+        int wheelRotation;
+        double preciseWheelRotation;
+
+        MouseRecord(int target, long micros) {
+            super(target, micros);
+        }
+
+        @Override
+        Object dispatch(Object target) {
+            Component component = (Component) target;
+            MouseEvent event;
+            if (wheel) {
+                // like the other mouse events, which compute the screen location themselves
+                Point screen = component.isShowing() ? component.getLocationOnScreen() : new Point();
+                event = new MouseWheelEvent(component, id, System.currentTimeMillis(), modifiers, x, y,
+                        screen.x + x, screen.y + y, clickCount, popupTrigger, scrollType, scrollAmount, wheelRotation,
+                        preciseWheelRotation);
+            } else {
+                event = new MouseEvent(component, id, System.currentTimeMillis(), modifiers, x, y, clickCount,
+                        popupTrigger, button);
+            }
+            component.dispatchEvent(event);
+            return event;
+        }
+    }
+
+    private static final class KeyRecord extends Record {
+        int id;
+        int modifiers;
+        int keyCode;
+        char keyChar;
+        int keyLocation;
+
+        KeyRecord(int target, long micros) {
+            super(target, micros);
+        }
+
+        @Override
+        Object dispatch(Object target) {
+            Component component = (Component) target;
+            KeyEvent event = new KeyEvent(component, id, System.currentTimeMillis(), modifiers, keyCode, keyChar,
+                    keyLocation);
+            // not retargeted to the focus owner, the target need not have the focus during the replay
+            KeyboardFocusManager.getCurrentKeyboardFocusManager().redispatchEvent(component, event);
+            return event;
+        }
+    }
+
+    private static final class EditRecord extends Record {
+        int offset;
+        int removedLength;
+        String insertedText;
+
+        EditRecord(int target, long micros) {
+            super(target, micros);
+        }
+
+        @Override
+        Object dispatch(Object target) throws BadLocationException {
+            Document document = (Document) target;
+            if (removedLength > 0) {
+                document.remove(offset, removedLength);
+            }
+            if (!insertedText.isEmpty()) {
+                document.insertString(offset, insertedText, null);
+            }
+            return document;
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.functions.FuncN;
+import rx.plugins.RxJavaHooks;
+import rx.schedulers.SwingScheduler;
+import rx.subjects.PublishSubject;
+import rx.subscriptions.CompositeSubscription;
+
+/**
+ * A row sorter that filters and sorts the rows of a table model on another thread, so a large table never
+ * freezes the Swing UI thread while it is sorted or filtered.
+ * <p>
+ * The filter comes from an observable of predicates, e.g. debounced from a search field:
+ * <pre>
+ * sorter.subscribeToFilters(SwingObservable.fromDocumentEvents(searchField.getDocument())
+ *         .debounce(150, TimeUnit.MILLISECONDS, SwingScheduler.getInstance())
+ *         .map(new Func1&lt;DocumentEvent, Func1&lt;Integer, Boolean&gt;&gt;() { ... }));
+ * </pre>
+ * Whenever the filter, the sort keys or the rows of the model change, the view is computed on the given
+ * scheduler: large models are split into chunks that are filtered and sorted in parallel and then merged.
+ * Only the finished view-to-model index array is handed to the Swing UI thread. A computation that is
+ * superseded by a newer one is cancelled and its result is never published. Until then the table shows the
+ * previous view; rows inserted in the meantime are not shown yet, deleted rows are removed at once. Updated
+ * rows do not cancel a running computation, so a model that is updated faster than it can be sorted still
+ * gets a view: the running computation is published and then repeated once for all updates in the meantime.
+ * <p>
+ * The filter and the comparators run off the Swing UI thread, with the model row index as argument. So they
+ * must only read data that is safe to read from other threads, e.g. an immutable snapshot of the rows, and not
+ * a table model that is modified on the Swing UI thread. If one of them throws, the error is passed to
+ * {@link RxJavaHooks#onError} and the table keeps the previous view until the next change is computed.
+ *
+ * @param <M>
+ *            the type of the table model
+ */
+public class ReactiveRowSorter<M extends TableModel> extends RowSorter<M> {
+
+    /**
+     * Models with more rows are filtered and sorted in parallel chunks of this size.
+     */
+    public static final int CHUNK_SIZE = 1 << 16;
+
+    private final M model;
+    private final Scheduler scheduler;
+    private final Map<Integer, Comparator<Integer>> comparators = new HashMap<Integer, Comparator<Integer>>();
+    private final PublishSubject<Criteria> criteria = PublishSubject.create();
+    private final CompositeSubscription subscriptions = new CompositeSubscription();
+
+    // only accessed by the Swing UI thread
+    private Func1<Integer, Boolean> filter;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    // null while the view is the model
+    private int[] viewToModel;
+    private int[] modelToView;
+    private long generation;
+    private boolean computing;
+    private boolean updatedWhileComputing;
+
+    /**
+     * @param model
+     *            the table model
+     * @param scheduler
+     *            the scheduler to filter and sort on, e.g. {@link rx.schedulers.Schedulers#computation()}
+     */
+    public ReactiveRowSorter(M model, Scheduler scheduler) {
+        this.model = model;
+        this.scheduler = scheduler;
+        subscriptions.add(criteria
+                .switchMap(new Func1<Criteria, Observable<View>>() {
+                    @Override
+                    public Observable<View> call(final Criteria c) {
+                        // a failed computation must not end the criteria, the next change is computed again
+                        return computeView(c).onErrorResumeNext(new Func1<Throwable, Observable<View>>() {
+                            @Override
+                            public Observable<View> call(Throwable e) {
+                                RxJavaHooks.onError(e);
+                                return Observable.just(new View(c.generation, null));
+                            }
+                        });
+                    }
+                })
+                .observeOn(SwingScheduler.getInstance())
+                .subscribe(new Action1<View>() {
+                    @Override
+                    public void call(View view) {
+                        publish(view);
+                    }
+                }));
+    }
+
+    /**
+     * Filters the rows with the predicates emitted by the given observable, which are evaluated with the model
+     * row index. A null predicate shows all rows. An error of the observable ends the subscription and is
+     * passed to {@link RxJavaHooks#onError}, the last predicate stays in effect.
+     *
+     * @return the subscription to the predicates
+     */
+    public Subscription subscribeToFilters(Observable<? extends Func1<Integer, Boolean>> filters) {
+        Subscription subscription = filters
+                .observeOn(SwingScheduler.getInstance())
+                .subscribe(new Action1<Func1<Integer, Boolean>>() {
+                    @Override
+                    public void call(Func1<Integer, Boolean> predicate) {
+                        filter = predicate;
+                        recompute();
+                    }
+                }, new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable e) {
+                        // subscribe has passed it to RxJavaHooks.onError already, this only keeps it from being
+                        // rethrown as an OnErrorNotImplementedException on the Swing UI thread
+                    }
+                });
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Sets the comparator of the model row indexes for a column, which makes the column sortable. Must be called
+     * on the Swing UI thread.
+     */
+    public void setComparator(int column, Comparator<Integer> comparator) {
+        comparators.put(column, comparator);
+        recompute();
+    }
+
+    /**
+     * Stops filtering and sorting.
+     */
+    public void dispose() {
+        subscriptions.unsubscribe();
+    }
+
+    @Override
+    public M getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        if (!comparators.containsKey(column)) {
+            return;
+        }
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> newKeys = keys == null ? Collections.<SortKey> emptyList()
+                : Collections.unmodifiableList(new ArrayList<SortKey>(keys));
+        if (!newKeys.equals(sortKeys)) {
+            sortKeys = newKeys;
+            fireSortOrderChanged();
+            recompute();
+        }
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        int[] view = viewToModel;
+        if (view == null) {
+            if (index < 0 || index >= model.getRowCount()) {
+                throw new IndexOutOfBoundsException("Invalid index");
+            }
+            return index;
+        }
+        if (index < 0 || index >= view.length) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return view[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modelToView == null) {
+            if (index < 0 || index >= model.getRowCount()) {
+                throw new IndexOutOfBoundsException("Invalid index");
+            }
+            return index;
+        }
+        // rows inserted after the view was computed are not shown yet
+        return index < modelToView.length ? modelToView[index] : -1;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? model.getRowCount() : viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        // like the DefaultRowSorter, the comparators stay and apply to the new columns
+        if (!sortKeys.isEmpty()) {
+            sortKeys = Collections.emptyList();
+            fireSortOrderChanged();
+        }
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        // keep what is still in the model until the new view arrives
+        removeFromView(model.getRowCount(), Integer.MAX_VALUE);
+        recompute();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        if (viewToModel != null) {
+            shiftModelIndexes(firstRow, endRow - firstRow + 1);
+        }
+        recompute();
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        removeFromView(firstRow, endRow);
+        recompute();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        rowsUpdated();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated();
+    }
+
+    private void rowsUpdated() {
+        if (computing) {
+            // the running computation still fits the model, it is repeated once it has been published
+            updatedWhileComputing = true;
+            return;
+        }
+        recompute();
+    }
+
+    private void recompute() {
+        List<Comparator<Integer>> keyComparators = new ArrayList<Comparator<Integer>>();
+        for (SortKey key : sortKeys) {
+            Comparator<Integer> comparator = comparators.get(key.getColumn());
+            if (comparator != null && key.getSortOrder() != SortOrder.UNSORTED) {
+                keyComparators.add(key.getSortOrder() == SortOrder.DESCENDING
+                        ? Collections.reverseOrder(comparator) : comparator);
+            }
+        }
+        generation++;
+        updatedWhileComputing = false;
+        if (filter == null && keyComparators.isEmpty()) {
+            // the view is the model, a running computation is superseded
+            computing = false;
+            criteria.onNext(Criteria.NONE);
+            if (viewToModel != null) {
+                setView(null, viewToModel);
+            }
+            return;
+        }
+        computing = true;
+        criteria.onNext(new Criteria(generation, model.getRowCount(), filter, keyComparators));
+    }
+
+    /**
+     * Inserted model rows move the model indexes behind them.
+     */
+    private void shiftModelIndexes(int firstRow, int count) {
+        int[] last = viewToModel;
+        int[] view = last.clone();
+        for (int i = 0; i < view.length; i++) {
+            if (view[i] >= firstRow) {
+                view[i] += count;
+            }
+        }
+        setView(view, last);
+    }
+
+    /**
+     * Removes deleted model rows from the view right away, the view must never refer to rows that are gone.
+     */
+    private void removeFromView(int firstRow, int endRow) {
+        int[] last = viewToModel;
+        if (last == null) {
+            return;
+        }
+        long removed = (long) endRow - firstRow + 1;
+        int[] view = new int[last.length];
+        int size = 0;
+        for (int modelIndex : last) {
+            if (modelIndex < firstRow) {
+                view[size++] = modelIndex;
+            } else if (modelIndex > endRow) {
+                view[size++] = (int) (modelIndex - removed);
+            }
+        }
+        setView(Arrays.copyOf(view, size), last);
+    }
+
+    private void publish(View view) {
+        if (view.generation != generation) {
+            // computed for a model or criteria that changed in the meantime
+            return;
+        }
+        computing = false;
+        if (view.viewToModel != null) {
+            setView(view.viewToModel, viewToModel);
+        }
+        if (updatedWhileComputing) {
+            recompute();
+        }
+    }
+
+    private void setView(int[] view, int[] last) {
+        int[] lastViewToModel = last == null ? identity(model.getRowCount()) : last;
+        viewToModel = view;
+        if (view == null) {
+            modelToView = null;
+        } else {
+            int[] inverse = new int[model.getRowCount()];
+            Arrays.fill(inverse, -1);
+            for (int i = 0; i < view.length; i++) {
+                if (view[i] < inverse.length) {
+                    inverse[view[i]] = i;
+                }
+            }
+            modelToView = inverse;
+        }
+        fireRowSorterChanged(lastViewToModel);
+    }
+
+    private static int[] identity(int size) {
+        int[] identity = new int[size];
+        for (int i = 0; i < size; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    private Observable<View> computeView(final Criteria c) {
+        if (c == Criteria.NONE) {
+            return Observable.empty();
+        }
+        int chunks = Math.max(1, (c.rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        List<Observable<int[]>> chunkViews = new ArrayList<Observable<int[]>>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int from = i * CHUNK_SIZE;
+            final int to = Math.min(c.rowCount, from + CHUNK_SIZE);
+            chunkViews.add(Observable.create(new OnSubscribe<int[]>() {
+                @Override
+                public void call(Subscriber<? super int[]> subscriber) {
+                    int[] rows = c.filterAndSort(from, to, subscriber);
+                    if (!subscriber.isUnsubscribed()) {
+                        subscriber.onNext(rows);
+                        subscriber.onCompleted();
+                    }
+                }
+            }).subscribeOn(scheduler));
+        }
+        // zip keeps the order of the chunks, and unsubscribes all of them when superseded
+        return Observable.zip(chunkViews, new FuncN<View>() {
+            @Override
+            public View call(Object... rows) {
+                int[][] sortedChunks = new int[rows.length][];
+                for (int i = 0; i < rows.length; i++) {
+                    sortedChunks[i] = (int[]) rows[i];
+                }
+                return new View(c.generation, c.merge(sortedChunks));
+            }
+        });
+    }
+
+    /**
+     * What the view is computed from, captured on the Swing UI thread.
+     */
+    private static final class Criteria {
+        static final Criteria NONE = new Criteria(-1, 0, null, Collections.<Comparator<Integer>> emptyList());
+
+        final long generation;
+        final int rowCount;
+        final Func1<Integer, Boolean> filter;
+        final Comparator<Integer> comparator;
+
+        Criteria(long generation, int rowCount, Func1<Integer, Boolean> filter,
+                final List<Comparator<Integer>> comparators) {
+            this.generation = generation;
+            this.rowCount = rowCount;
+            this.filter = filter;
+            this.comparator = comparators.isEmpty() ? null : new Comparator<Integer>() {
+                @Override
+                public int compare(Integer row1, Integer row2) {
+                    for (Comparator<Integer> comparator : comparators) {
+                        int result = comparator.compare(row1, row2);
+                        if (result != 0) {
+                            return result;
+                        }
+                    }
+                    return row1.compareTo(row2);
+                }
+            };
+        }
+
+        int[] filterAndSort(int from, int to, Subscription cancellation) {
+            int[] rows = new int[to - from];
+            int size = 0;
+            for (int row = from; row < to; row++) {
+                if ((row & 1023) == 0 && cancellation.isUnsubscribed()) {
+                    return rows;
+                }
+                if (filter == null || Boolean.TRUE.equals(filter.call(row))) {
+                    rows[size++] = row;
+                }
+            }
+            if (comparator == null) {
+                return Arrays.copyOf(rows, size);
+            }
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = rows[i];
+            }
+            Arrays.sort(boxed, comparator);
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = boxed[i];
+            }
+            return sorted;
+        }
+
+        int[] merge(int[][] sortedChunks) {
+            int size = 0;
+            for (int[] chunk : sortedChunks) {
+                size += chunk.length;
+            }
+            int[] result = new int[size];
+            if (comparator == null) {
+                // the chunks are in model order already
+                int offset = 0;
+                for (int[] chunk : sortedChunks) {
+                    System.arraycopy(chunk, 0, result, offset, chunk.length);
+                    offset += chunk.length;
+                }
+                return result;
+            }
+            int[] positions = new int[sortedChunks.length];
+            for (int i = 0; i < size; i++) {
+                int best = -1;
+                for (int chunk = 0; chunk < sortedChunks.length; chunk++) {
+                    if (positions[chunk] < sortedChunks[chunk].length && (best < 0 || comparator.compare(
+                            sortedChunks[chunk][positions[chunk]], sortedChunks[best][positions[best]]) < 0)) {
+                        best = chunk;
+                    }
+                }
+                result[i] = sortedChunks[best][positions[best]++];
+            }
+            return result;
+        }
+    }
+
+    private static final class View {
+        final long generation;
+        // null if the computation failed
+        final int[] viewToModel;
+
+        View(long generation, int[] viewToModel) {
+            this.generation = generation;
+            this.viewToModel = viewToModel;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.table.AbstractTableModel;
+
+import rx.Observable;
+import rx.Scheduler.Worker;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func2;
+import rx.plugins.RxJavaHooks;
+import rx.schedulers.SwingScheduler;
+import rx.swing.sinks.RowChange.Type;
+
+/**
+ * A table model whose rows are fed by observables of {@link RowChange}s.
+ * <p>
+ * The changes may arrive on any thread. They are queued and applied on the Swing UI thread once per turn: all
+ * changes that arrive until the pending UI events have been processed are applied together, and the table
+ * model events are collapsed into as few contiguous ranges as possible. A thousand updates of adjacent rows
+ * fire a single {@link #fireTableRowsUpdated}, rows appended one by one a single {@link #fireTableRowsInserted}.
+ * Updates of rows that were inserted in the same turn fire nothing of their own. The events are fired in the
+ * order of the changes, each when the model reflects exactly the changes it describes, as Swing requires.
+ * <p>
+ * A change of a row index that does not exist when it is applied is skipped and passed to
+ * {@link RxJavaHooks#onError}, the changes after it are still applied.
+ *
+ * @param <T>
+ *            the type of the rows
+ */
+public class ReactiveTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] columnNames;
+    private final Func2<? super T, Integer, ?> cellValue;
+    private final transient Queue<RowChange<T>> queue = new ConcurrentLinkedQueue<RowChange<T>>();
+    private final transient AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final transient Worker worker = SwingScheduler.getInstance().createWorker();
+    private final transient Action0 flush = new Action0() {
+        @Override
+        public void call() {
+            flush();
+        }
+    };
+
+    // only accessed by the Swing UI thread
+    private final List<T> rows = new ArrayList<T>();
+    private final BitSet updatedRows = new BitSet();
+    private Type pendingType;
+    private int pendingFirst;
+    private int pendingLast;
+
+    /**
+     * @param columnNames
+     *            the names of the columns
+     * @param cellValue
+     *            returns the value of a row in the column with the given index
+     */
+    public ReactiveTableModel(List<String> columnNames, Func2<? super T, Integer, ?> cellValue) {
+        this.columnNames = columnNames.toArray(new String[columnNames.size()]);
+        this.cellValue = cellValue;
+    }
+
+    /**
+     * Applies the changes emitted by the given observable until the returned subscription is unsubscribed.
+     * An error of the observable ends the subscription and is passed to {@link RxJavaHooks#onError}, it should
+     * rather be dealt with before the changes reach the model.
+     */
+    public Subscription subscribeTo(Observable<? extends RowChange<T>> changes) {
+        return changes.subscribe(new Action1<RowChange<T>>() {
+            @Override
+            public void call(RowChange<T> change) {
+                queue.offer(change);
+                scheduleFlush();
+            }
+        }, new Action1<Throwable>() {
+            @Override
+            public void call(Throwable e) {
+                // subscribe has passed it to RxJavaHooks.onError already, this only keeps it from being
+                // rethrown as an OnErrorNotImplementedException
+            }
+        });
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            // a delayed action never runs inline, it waits for the pending UI events
+            worker.schedule(flush, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return cellValue.call(rows.get(rowIndex), columnIndex);
+    }
+
+    /**
+     * @return the row at the given index
+     */
+    public T getRow(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        try {
+            RowChange<T> change;
+            while ((change = queue.poll()) != null) {
+                if (isValid(change)) {
+                    apply(change);
+                } else {
+                    RxJavaHooks.onError(new IndexOutOfBoundsException(change + " of " + rows.size() + " rows"));
+                }
+            }
+        } finally {
+            try {
+                fireUpdatedRows();
+                firePendingChange();
+            } finally {
+                if (!queue.isEmpty()) {
+                    // a listener failed, the remaining changes are applied in the next turn
+                    scheduleFlush();
+                }
+            }
+        }
+    }
+
+    private boolean isValid(RowChange<T> change) {
+        if (change.getType() == Type.REPLACE_ALL) {
+            return true;
+        }
+        int size = change.getType() == Type.INSERT ? rows.size() + 1 : rows.size();
+        return change.getIndex() >= 0 && change.getIndex() < size;
+    }
+
+    private void apply(RowChange<T> change) {
+        int index = change.getIndex();
+        if (pendingType == Type.REPLACE_ALL && change.getType() != Type.REPLACE_ALL) {
+            // covered by the data changed event
+            applyToRows(change);
+            return;
+        }
+        switch (change.getType()) {
+        case UPDATE:
+            if (pendingType != Type.INSERT || index < pendingFirst || index > pendingLast) {
+                firePendingChange();
+                updatedRows.set(index);
+            }
+            break;
+        case INSERT:
+            fireUpdatedRows();
+            if (pendingType == Type.INSERT && index >= pendingFirst && index <= pendingLast + 1) {
+                pendingLast++;
+            } else {
+                startPendingChange(Type.INSERT, index);
+            }
+            break;
+        case DELETE:
+            fireUpdatedRows();
+            if (pendingType == Type.DELETE && index == pendingFirst) {
+                pendingLast++;
+            } else if (pendingType == Type.DELETE && index == pendingFirst - 1) {
+                pendingFirst--;
+            } else if (pendingType == Type.INSERT && index >= pendingFirst && index <= pendingLast) {
+                // the row was never seen by the listeners
+                if (--pendingLast < pendingFirst) {
+                    pendingType = null;
+                }
+            } else {
+                startPendingChange(Type.DELETE, index);
+            }
+            break;
+        default:
+            updatedRows.clear();
+            pendingType = Type.REPLACE_ALL;
+        }
+        applyToRows(change);
+    }
+
+    private void applyToRows(RowChange<T> change) {
+        switch (change.getType()) {
+        case UPDATE:
+            rows.set(change.getIndex(), change.getRow());
+            break;
+        case INSERT:
+            rows.add(change.getIndex(), change.getRow());
+            break;
+        case DELETE:
+            rows.remove(change.getIndex());
+            break;
+        default:
+            rows.clear();
+            rows.addAll(change.getRows());
+        }
+    }
+
+    private void startPendingChange(Type type, int index) {
+        firePendingChange();
+        pendingType = type;
+        pendingFirst = index;
+        pendingLast = index;
+    }
+
+    private void firePendingChange() {
+        Type type = pendingType;
+        pendingType = null;
+        if (type == Type.INSERT) {
+            fireTableRowsInserted(pendingFirst, pendingLast);
+        } else if (type == Type.DELETE) {
+            fireTableRowsDeleted(pendingFirst, pendingLast);
+        } else if (type == Type.REPLACE_ALL) {
+            fireTableDataChanged();
+        }
+    }
+
+    private void fireUpdatedRows() {
+        if (updatedRows.isEmpty()) {
+            return;
+        }
+        for (int first = updatedRows.nextSetBit(0); first >= 0; first = updatedRows.nextSetBit(first)) {
+            int end = updatedRows.nextClearBit(first);
+            fireTableRowsUpdated(first, end - 1);
+            first = end;
+        }
+        updatedRows.clear();
+    }
+}
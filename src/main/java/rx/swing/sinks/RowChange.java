@@ -0,0 +1,116 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A change of the rows of a {@link ReactiveTableModel}. Row indexes refer to the rows after all previous changes
+ * have been applied.
+ *
+ * @param <T>
+ *            the type of the rows
+ */
+public final class RowChange<T> {
+
+    /**
+     * The kinds of row changes.
+     */
+    public enum Type {
+        INSERT, UPDATE, DELETE, REPLACE_ALL
+    }
+
+    private final Type type;
+    private final int index;
+    private final T row;
+    private final List<T> rows;
+
+    private RowChange(Type type, int index, T row, List<T> rows) {
+        this.type = type;
+        this.index = index;
+        this.row = row;
+        this.rows = rows;
+    }
+
+    /**
+     * @return a change that inserts a row at the given index, moving the rows from there on down by one
+     */
+    public static <T> RowChange<T> insert(int index, T row) {
+        checkIndex(index);
+        return new RowChange<T>(Type.INSERT, index, row, null);
+    }
+
+    /**
+     * @return a change that replaces the row at the given index
+     */
+    public static <T> RowChange<T> update(int index, T row) {
+        checkIndex(index);
+        return new RowChange<T>(Type.UPDATE, index, row, null);
+    }
+
+    /**
+     * @return a change that deletes the row at the given index, moving the rows behind it up by one
+     */
+    public static <T> RowChange<T> delete(int index) {
+        checkIndex(index);
+        return new RowChange<T>(Type.DELETE, index, null, null);
+    }
+
+    /**
+     * @return a change that replaces all rows with a copy of the given ones
+     */
+    public static <T> RowChange<T> replaceAll(List<? extends T> rows) {
+        return new RowChange<T>(Type.REPLACE_ALL, -1, null, Collections.unmodifiableList(new ArrayList<T>(rows)));
+    }
+
+    private static void checkIndex(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("index >= 0 required but it was " + index);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the index of the inserted, updated or deleted row, or -1 for {@link Type#REPLACE_ALL}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the inserted or updated row, or null
+     */
+    public T getRow() {
+        return row;
+    }
+
+    /**
+     * @return the new rows of {@link Type#REPLACE_ALL}, or null
+     */
+    public List<T> getRows() {
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "RowChange[" + type + (index >= 0 ? " " + index : "") + "]";
+    }
+}
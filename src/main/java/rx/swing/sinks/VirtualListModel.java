@@ -0,0 +1,270 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JList;
+import javax.swing.JViewport;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.functions.Func2;
+import rx.observables.SwingObservable;
+import rx.plugins.RxJavaHooks;
+import rx.schedulers.SwingScheduler;
+
+/**
+ * A list model of a huge number of rows that only holds the rows around the visible part of the list.
+ * <p>
+ * The rows are loaded in pages by a page loader, which gets the index of the first row and the number of rows
+ * of a page and returns an observable of the rows. Only the pages of the visible rows, and a few pages before
+ * and after them, are loaded; the least recently used pages are evicted once more than the given number of
+ * pages is cached. Until its page has been loaded, a row is <code>null</code>.
+ * <p>
+ * The visible rows are usually followed with {@link #bindTo(JList, JViewport)}, which listens to the scrolling
+ * and resizing of the viewport. The list should have a fixed cell height, otherwise its UI asks for every row
+ * to compute the preferred size of the list.
+ * <p>
+ * The model must only be used on the Swing UI thread. The page loader is subscribed to on the Swing UI thread
+ * as well, so it should subscribe on another scheduler itself if loading a page takes a while. Loads of pages
+ * that are no longer near the visible rows are cancelled. A page that failed to load is reported to the RxJava
+ * error handler and loaded again when the visible rows change the next time.
+ *
+ * @param <T>
+ *            the type of the rows
+ */
+public class VirtualListModel<T> extends AbstractListModel<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int pageSize;
+    private final int prefetchPages;
+    private final int maxCachedPages;
+    private final transient Func2<Integer, Integer, ? extends Observable<? extends List<? extends T>>> pageLoader;
+    // in access order, so the first page is the least recently used one
+    private final transient Map<Integer, List<? extends T>> pages;
+    private final transient Map<Integer, Subscription> loading = new HashMap<Integer, Subscription>();
+
+    private int size;
+    private int firstVisibleRow = -1;
+    private int lastVisibleRow = -1;
+    private int firstPage;
+    private int lastPage = -1;
+
+    /**
+     * @param size
+     *            the number of rows
+     * @param pageSize
+     *            the number of rows per page
+     * @param prefetchPages
+     *            the number of pages to load before and after the visible ones
+     * @param maxCachedPages
+     *            the number of pages to keep, which must be large enough for the visible and the prefetched pages
+     * @param pageLoader
+     *            returns the rows of the page with the given index of the first row and number of rows
+     */
+    public VirtualListModel(int size, int pageSize, int prefetchPages, int maxCachedPages,
+            Func2<Integer, Integer, ? extends Observable<? extends List<? extends T>>> pageLoader) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size >= 0 required but it was " + size);
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize > 0 required but it was " + pageSize);
+        }
+        if (prefetchPages < 0) {
+            throw new IllegalArgumentException("prefetchPages >= 0 required but it was " + prefetchPages);
+        }
+        if (maxCachedPages < 2 * prefetchPages + 1) {
+            throw new IllegalArgumentException("maxCachedPages >= 2 * prefetchPages + 1 required but it was "
+                    + maxCachedPages);
+        }
+        this.size = size;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        this.maxCachedPages = maxCachedPages;
+        this.pageLoader = pageLoader;
+        this.pages = new LinkedHashMap<Integer, List<? extends T>>(16, 0.75f, true);
+    }
+
+    /**
+     * Follows the rows that are visible in the viewport of the given list until the returned subscription is
+     * unsubscribed.
+     *
+     * @param list
+     *            a list with this model
+     * @param viewport
+     *            the viewport that shows the list
+     */
+    public Subscription bindTo(final JList<?> list, JViewport viewport) {
+        return Observable
+                .<Object> merge(SwingObservable.fromChangeEvents(viewport), SwingObservable.fromResizing(viewport))
+                .startWith(list)
+                .subscribeOn(SwingScheduler.getInstance())
+                .subscribe(new Action1<Object>() {
+                    @Override
+                    public void call(Object event) {
+                        int first = list.getFirstVisibleIndex();
+                        if (first >= 0) {
+                            setVisibleRange(first, list.getLastVisibleIndex());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Loads the pages of the given rows and the pages around them, and cancels the loads of all other pages.
+     *
+     * @param firstRow
+     *            the index of the first visible row
+     * @param lastRow
+     *            the index of the last visible row, inclusive
+     */
+    public void setVisibleRange(int firstRow, int lastRow) {
+        SwingObservable.assertEventDispatchThread();
+        firstVisibleRow = firstRow;
+        lastVisibleRow = lastRow;
+        int pageCount = (size + pageSize - 1) / pageSize;
+        int first = Math.max(0, firstRow / pageSize - prefetchPages);
+        int last = Math.min(pageCount - 1, lastRow / pageSize + prefetchPages);
+        // keep the window within the cache, so its pages do not evict each other
+        last = Math.min(last, first + maxCachedPages - 1);
+        firstPage = first;
+        lastPage = last;
+
+        Iterator<Map.Entry<Integer, Subscription>> loads = loading.entrySet().iterator();
+        while (loads.hasNext()) {
+            Map.Entry<Integer, Subscription> load = loads.next();
+            if (load.getKey() < first || load.getKey() > last) {
+                loads.remove();
+                load.getValue().unsubscribe();
+            }
+        }
+        for (int page = first; page <= last; page++) {
+            // touching the cached pages makes them the most recently used ones
+            if (pages.get(page) == null && !loading.containsKey(page)) {
+                load(page);
+            }
+        }
+    }
+
+    /**
+     * Changes the number of rows and discards all pages, e.g. after the underlying result set has changed.
+     */
+    public void setSize(int size) {
+        SwingObservable.assertEventDispatchThread();
+        if (size < 0) {
+            throw new IllegalArgumentException("size >= 0 required but it was " + size);
+        }
+        for (Subscription load : loading.values()) {
+            load.unsubscribe();
+        }
+        loading.clear();
+        pages.clear();
+        int oldSize = this.size;
+        this.size = size;
+        if (size < oldSize) {
+            fireIntervalRemoved(this, size, oldSize - 1);
+        } else if (size > oldSize) {
+            fireIntervalAdded(this, oldSize, size - 1);
+        }
+        if (Math.min(size, oldSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(size, oldSize) - 1);
+        }
+        if (firstVisibleRow >= 0) {
+            setVisibleRange(firstVisibleRow, lastVisibleRow);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the row at the given index, or <code>null</code> if its page has not been loaded
+     */
+    @Override
+    public T getElementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        List<? extends T> page = pages.get(index / pageSize);
+        int offset = index % pageSize;
+        return page == null || offset >= page.size() ? null : page.get(offset);
+    }
+
+    /**
+     * @return true if the page of the row at the given index is cached
+     */
+    public boolean isLoaded(int index) {
+        return pages.containsKey(index / pageSize);
+    }
+
+    private void load(final int page) {
+        final int start = page * pageSize;
+        final int length = Math.min(pageSize, size - start);
+        Subscriber<List<? extends T>> subscriber = new Subscriber<List<? extends T>>() {
+            @Override
+            public void onNext(List<? extends T> rows) {
+                unsubscribe();
+                if (loading.get(page) == this) {
+                    loading.remove(page);
+                    pages.put(page, rows);
+                    evict();
+                    fireContentsChanged(VirtualListModel.this, start, start + length - 1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                if (loading.get(page) == this) {
+                    loading.remove(page);
+                }
+                RxJavaHooks.onError(e);
+            }
+
+            @Override
+            public void onCompleted() {
+                // a page without rows stays unloaded
+                if (loading.get(page) == this) {
+                    loading.remove(page);
+                }
+            }
+        };
+        loading.put(page, subscriber);
+        pageLoader.call(start, length)
+                .observeOn(SwingScheduler.getInstance())
+                .subscribe(subscriber);
+    }
+
+    private void evict() {
+        Iterator<Integer> cached = pages.keySet().iterator();
+        while (pages.size() > maxCachedPages && cached.hasNext()) {
+            int page = cached.next();
+            if (page < firstPage || page > lastPage) {
+                cached.remove();
+            }
+        }
+    }
+}
@@ -16,11 +16,8 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
@@ -32,24 +29,28 @@ public enum AbstractButtonSource { ; // no instances
      * @see rx.observables.SwingObservable#fromButtonAction
      */
     public static Observable<ActionEvent> fromActionOf(final AbstractButton button) {
-        return Observable.create(new OnSubscribe<ActionEvent>() {
-            @Override
-            public void call(final Subscriber<? super ActionEvent> subscriber) {
-                final ActionListener listener = new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        subscriber.onNext(e);
-                    }
-                };
-                button.addActionListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        button.removeActionListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
+        return SharedListeners.observe(button, ACTION);
     }
+
+    private static final Kind<AbstractButton, ActionEvent, ActionListener> ACTION = new Kind<AbstractButton, ActionEvent, ActionListener>("ActionListener") {
+        @Override
+        ActionListener createListener(final Observer<? super ActionEvent> observer) {
+            return new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    observer.onNext(e);
+                }
+            };
+        }
+
+        @Override
+        void addListener(AbstractButton button, ActionListener listener) {
+            button.addActionListener(listener);
+        }
+
+        @Override
+        void removeListener(AbstractButton button, ActionListener listener) {
+            button.removeActionListener(listener);
+        }
+    };
 }
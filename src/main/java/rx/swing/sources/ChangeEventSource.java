@@ -16,14 +16,24 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
+import javax.swing.AbstractButton;
+import javax.swing.BoundedRangeModel;
+import javax.swing.ButtonModel;
+import javax.swing.JProgressBar;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.JTabbedPane;
+import javax.swing.JViewport;
+import javax.swing.SpinnerModel;
+import javax.swing.colorchooser.ColorSelectionModel;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -52,64 +62,308 @@ public enum ChangeEventSource { ; // no instances
 	 */
 	public static Observable<ChangeEvent> fromChangeEventsOf(final Object changeEventSource) {
 		checkHasChangeListenerSupport(changeEventSource);
-		return Observable.create(new OnSubscribe<ChangeEvent>() {
-			@Override
-			public void call(final Subscriber<? super ChangeEvent> subscriber) {
-				final ChangeListener listener = new ChangeListener() {
-					@Override
-					public void stateChanged(final ChangeEvent event) {
-						subscriber.onNext(event);
-					}
-				};
-				addChangeListener(changeEventSource, listener);
-				subscriber.add(Subscriptions.create(new Action0() {
-					@Override
-					public void call() {
-						removeChangeListener(changeEventSource, listener);
-					}
-				}));
-			}
-		}).subscribeOn(SwingScheduler.getInstance())
-				.unsubscribeOn(SwingScheduler.getInstance());
+		return SharedListeners.observe(changeEventSource, CHANGE);
 	}
 
+	private static final Kind<Object, ChangeEvent, ChangeListener> CHANGE = new Kind<Object, ChangeEvent, ChangeListener>("ChangeListener") {
+		@Override
+		ChangeListener createListener(final Observer<? super ChangeEvent> observer) {
+			return new ChangeListener() {
+				@Override
+				public void stateChanged(final ChangeEvent event) {
+					observer.onNext(event);
+				}
+			};
+		}
+
+		@Override
+		void addListener(Object changeEventSource, ChangeListener listener) {
+			addChangeListener(changeEventSource, listener);
+		}
+
+		@Override
+		void removeListener(Object changeEventSource, ChangeListener listener) {
+			removeChangeListener(changeEventSource, listener);
+		}
+	};
+
 	private static void checkHasChangeListenerSupport(Object object) {
-		checkPublicMethodExists(object, ADD_CHANGE_LISTENER_METHOD_NAME, ChangeListener.class);
-		checkPublicMethodExists(object, REMOVE_CHANGE_LISTENER_METHOD_NAME, ChangeListener.class);
+		ACCESS.get(object.getClass()).check(object);
 	}
 
-	private static void checkPublicMethodExists(Object object, String methodName, Class<?>... parameterTypes) {
+	private static void addChangeListener(Object object, ChangeListener changeListener) {
+		ChangeListenerAccess access = ACCESS.get(object.getClass());
+		access.check(object);
 		try {
-			Method method = object.getClass().getMethod(methodName, parameterTypes);
-			if (!Modifier.isPublic(method.getModifiers())) {
-				throw new IllegalArgumentException(
-						"Class '" + object.getClass().getName() + "' has not the expected signature to support change listeners in "
-								+ ChangeEventSource.class.getName() + ". " + methodName + " is not accessible.");
-			}
-		} catch (NoSuchMethodException e) {
-			throw new IllegalArgumentException("Class '" + object.getClass().getName() + "' has not the expected signature to support change listeners in " + ChangeEventSource.class.getName(), e);
+			access.addChangeListener(object, changeListener);
+		} catch (Throwable e) {
+			throw callFailed(ADD_CHANGE_LISTENER_METHOD_NAME, e);
 		}
 	}
 
-	private static void addChangeListener(Object object, ChangeListener changeListener) {
-		callChangeListenerMethodViaReflection(object, ADD_CHANGE_LISTENER_METHOD_NAME, changeListener);
+	private static void removeChangeListener(Object object, ChangeListener changeListener) {
+		ChangeListenerAccess access = ACCESS.get(object.getClass());
+		access.check(object);
+		try {
+			access.removeChangeListener(object, changeListener);
+		} catch (Throwable e) {
+			throw callFailed(REMOVE_CHANGE_LISTENER_METHOD_NAME, e);
+		}
 	}
 
-	private static void removeChangeListener(Object object, ChangeListener changeListener) {
-		callChangeListenerMethodViaReflection(object, REMOVE_CHANGE_LISTENER_METHOD_NAME, changeListener);
+	private static IllegalArgumentException callFailed(String methodName, Throwable e) {
+		// wrapped as before the method handles, when the methods were called with Method.invoke
+		return new IllegalArgumentException("Call of " + methodName + " via reflection failed.", new InvocationTargetException(e));
+	}
+
+	/**
+	 * How to add and remove the change listeners of the instances of a class.
+	 */
+	private abstract static class ChangeListenerAccess {
+
+		/**
+		 * @throws IllegalArgumentException if the class does not support change listeners
+		 */
+		void check(Object object) {
+			// supported
+		}
+
+		abstract void addChangeListener(Object object, ChangeListener listener) throws Throwable;
+
+		abstract void removeChangeListener(Object object, ChangeListener listener) throws Throwable;
+	}
+
+	/**
+	 * The access per class, so the methods are looked up once per class instead of on every subscribe and
+	 * unsubscribe. The Swing types of the {@link rx.observables.SwingObservable#fromChangeEvents} overloads are
+	 * called directly, all other classes through method handles.
+	 */
+	private static final ClassValue<ChangeListenerAccess> ACCESS = new ClassValue<ChangeListenerAccess>() {
+		@Override
+		protected ChangeListenerAccess computeValue(Class<?> type) {
+			if (JTabbedPane.class.isAssignableFrom(type)) {
+				return TABBED_PANE;
+			}
+			if (JSlider.class.isAssignableFrom(type)) {
+				return SLIDER;
+			}
+			if (JSpinner.class.isAssignableFrom(type)) {
+				return SPINNER;
+			}
+			if (SpinnerModel.class.isAssignableFrom(type)) {
+				return SPINNER_MODEL;
+			}
+			if (AbstractButton.class.isAssignableFrom(type)) {
+				return BUTTON;
+			}
+			if (ButtonModel.class.isAssignableFrom(type)) {
+				return BUTTON_MODEL;
+			}
+			if (JViewport.class.isAssignableFrom(type)) {
+				return VIEWPORT;
+			}
+			if (ColorSelectionModel.class.isAssignableFrom(type)) {
+				return COLOR_SELECTION_MODEL;
+			}
+			if (JProgressBar.class.isAssignableFrom(type)) {
+				return PROGRESS_BAR;
+			}
+			if (BoundedRangeModel.class.isAssignableFrom(type)) {
+				return BOUNDED_RANGE_MODEL;
+			}
+			return methodHandleAccess(type);
+		}
+	};
+
+	private static ChangeListenerAccess methodHandleAccess(Class<?> type) {
+		final MethodHandle add;
+		final MethodHandle remove;
+		try {
+			add = findChangeListenerMethod(type, ADD_CHANGE_LISTENER_METHOD_NAME);
+			remove = findChangeListenerMethod(type, REMOVE_CHANGE_LISTENER_METHOD_NAME);
+		} catch (IllegalArgumentException e) {
+			return unsupported(e);
+		}
+		return new ChangeListenerAccess() {
+			@Override
+			void addChangeListener(Object object, ChangeListener listener) throws Throwable {
+				add.invokeExact(object, listener);
+			}
+
+			@Override
+			void removeChangeListener(Object object, ChangeListener listener) throws Throwable {
+				remove.invokeExact(object, listener);
+			}
+		};
 	}
 
-	private static void callChangeListenerMethodViaReflection(Object object,
-	                                                          String methodName,
-	                                                          ChangeListener changeListener) {
+	private static MethodHandle findChangeListenerMethod(Class<?> type, String methodName) {
+		Method method;
 		try {
-			object.getClass().getMethod(methodName, ChangeListener.class).invoke(object, changeListener);
-		} catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("Call of " + methodName + " via reflection failed. Does class " + object.getClass().getName() + " support change listeners?", e);
-		} catch (InvocationTargetException e) {
-			throw new IllegalArgumentException("Call of " + methodName + " via reflection failed.", e);
+			method = type.getMethod(methodName, ChangeListener.class);
 		} catch (NoSuchMethodException e) {
-			throw new IllegalArgumentException("Call of " + methodName + " via reflection failed. Does class " + object.getClass().getName() + " support change listeners?", e);
+			throw new IllegalArgumentException("Class '" + type.getName() + "' has not the expected signature to support change listeners in " + ChangeEventSource.class.getName(), e);
+		}
+		try {
+			MethodHandle handle;
+			if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+				handle = MethodHandles.publicLookup().unreflect(method);
+			} else {
+				// e.g. an anonymous class, whose public methods are not accessible without reflection
+				method.setAccessible(true);
+				handle = MethodHandles.lookup().unreflect(method);
+			}
+			return handle.asType(MethodType.methodType(void.class, Object.class, ChangeListener.class));
+		} catch (IllegalAccessException e) {
+			throw notAccessible(type, methodName, e);
+		} catch (RuntimeException e) {
+			// the SecurityException of setAccessible, or the InaccessibleObjectException of newer Java versions
+			throw notAccessible(type, methodName, e);
 		}
 	}
+
+	private static IllegalArgumentException notAccessible(Class<?> type, String methodName, Exception cause) {
+		return new IllegalArgumentException(
+				"Class '" + type.getName() + "' has not the expected signature to support change listeners in "
+						+ ChangeEventSource.class.getName() + ". " + methodName + " is not accessible.", cause);
+	}
+
+	private static ChangeListenerAccess unsupported(final IllegalArgumentException reason) {
+		return new ChangeListenerAccess() {
+			@Override
+			void check(Object object) {
+				throw new IllegalArgumentException(reason.getMessage(), reason.getCause());
+			}
+
+			@Override
+			void addChangeListener(Object object, ChangeListener listener) {
+				throw new AssertionError("checked before");
+			}
+
+			@Override
+			void removeChangeListener(Object object, ChangeListener listener) {
+				throw new AssertionError("checked before");
+			}
+		};
+	}
+
+	private static final ChangeListenerAccess TABBED_PANE = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((JTabbedPane) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((JTabbedPane) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess SLIDER = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((JSlider) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((JSlider) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess SPINNER = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((JSpinner) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((JSpinner) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess SPINNER_MODEL = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((SpinnerModel) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((SpinnerModel) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess BUTTON = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((AbstractButton) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((AbstractButton) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess BUTTON_MODEL = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((ButtonModel) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((ButtonModel) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess VIEWPORT = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((JViewport) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((JViewport) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess COLOR_SELECTION_MODEL = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((ColorSelectionModel) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((ColorSelectionModel) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess PROGRESS_BAR = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((JProgressBar) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((JProgressBar) object).removeChangeListener(listener);
+		}
+	};
+
+	private static final ChangeListenerAccess BOUNDED_RANGE_MODEL = new ChangeListenerAccess() {
+		@Override
+		void addChangeListener(Object object, ChangeListener listener) {
+			((BoundedRangeModel) object).addChangeListener(listener);
+		}
+
+		@Override
+		void removeChangeListener(Object object, ChangeListener listener) {
+			((BoundedRangeModel) object).removeChangeListener(listener);
+		}
+	};
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.awt.event.MouseEvent;
+
+/**
+ * The latest of one or more mouse motion events that were merged according to a {@link CoalescingPolicy}.
+ */
+public final class CoalescedMouseEvent {
+
+    private final MouseEvent event;
+    private final int count;
+
+    /* package */CoalescedMouseEvent(MouseEvent event, int count) {
+        this.event = event;
+        this.count = count;
+    }
+
+    /**
+     * @return the latest of the merged events, either a {@link MouseEvent#MOUSE_MOVED} or a
+     *         {@link MouseEvent#MOUSE_DRAGGED}
+     */
+    public MouseEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * @return the number of merged events, at least 1
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the horizontal position of the latest event
+     */
+    public int getX() {
+        return event.getX();
+    }
+
+    /**
+     * @return the vertical position of the latest event
+     */
+    public int getY() {
+        return event.getY();
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescedMouseEvent[x=" + event.getX() + ", y=" + event.getY() + ", count=" + count + "]";
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+/**
+ * How mouse motion events are merged into {@link CoalescedMouseEvent}s when they arrive faster than they are
+ * consumed. With either policy the latest event wins and the number of merged events is accumulated, and no
+ * more events are emitted than were requested.
+ *
+ * @see rx.observables.SwingObservable#fromMouseMotionEvents(java.awt.Component, CoalescingPolicy)
+ */
+public enum CoalescingPolicy {
+
+    /**
+     * Emits every event right away while the subscriber has outstanding requests, and only merges the events
+     * that arrive while it has none.
+     */
+    WHEN_BACKPRESSURED,
+
+    /**
+     * Emits at most once per turn of the Swing UI thread: the events that are dispatched before the pending
+     * UI events have been processed are always merged, even if the subscriber could take them all. This suits
+     * consumers that only care about the latest position, like a repaint.
+     */
+    PER_EDT_TURN
+}
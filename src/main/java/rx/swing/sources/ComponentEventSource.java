@@ -16,17 +16,17 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
+import rx.Observer;
+import rx.functions.Action1;
+import rx.functions.Func0;
 import rx.functions.Func1;
 import rx.observables.SwingObservable;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static rx.swing.sources.ComponentEventSource.Predicate.RESIZED;
 
@@ -36,41 +36,45 @@ public enum ComponentEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromComponentEvents
      */
     public static Observable<ComponentEvent> fromComponentEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<ComponentEvent>() {
-            @Override
-            public void call(final Subscriber<? super ComponentEvent> subscriber) {
-                final ComponentListener listener = new ComponentListener() {
-                    @Override
-                    public void componentHidden(ComponentEvent event) {
-                        subscriber.onNext(event);
-                    }
+        return SharedListeners.observe(component, COMPONENT);
+    }
 
-                    @Override
-                    public void componentMoved(ComponentEvent event) {
-                        subscriber.onNext(event);
-                    }
+    private static final Kind<Component, ComponentEvent, ComponentListener> COMPONENT = new Kind<Component, ComponentEvent, ComponentListener>("ComponentListener") {
+        @Override
+        ComponentListener createListener(final Observer<? super ComponentEvent> observer) {
+            return new ComponentListener() {
+                @Override
+                public void componentHidden(ComponentEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void componentResized(ComponentEvent event) {
-                        subscriber.onNext(event);
-                    }
+                @Override
+                public void componentMoved(ComponentEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void componentShown(ComponentEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addComponentListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeComponentListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+                @Override
+                public void componentResized(ComponentEvent event) {
+                    observer.onNext(event);
+                }
+
+                @Override
+                public void componentShown(ComponentEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, ComponentListener listener) {
+            component.addComponentListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, ComponentListener listener) {
+            component.removeComponentListener(listener);
+        }
+    };
     
     /**
      * @see SwingObservable#fromResizing
@@ -84,6 +88,38 @@ public enum ComponentEventSource { ; // no instances
         });
     }
     
+    /**
+     * @see SwingObservable#whileVisible
+     */
+    public static <T> Observable<T> whileShowing(final Component component, final Observable<T> upstream) {
+        return Observable.defer(new Func0<Observable<T>>() {
+            @Override
+            public Observable<T> call() {
+                final AtomicReference<Object> latest = new AtomicReference<Object>(NO_VALUE);
+                final Observable<T> recordingLatest = upstream.doOnNext(new Action1<T>() {
+                    @Override
+                    public void call(T value) {
+                        latest.set(value);
+                    }
+                });
+                return HierarchyEventSource.fromShowingStatesOf(component)
+                        .switchMap(new Func1<Boolean, Observable<T>>() {
+                            @Override
+                            @SuppressWarnings("unchecked")
+                            public Observable<T> call(Boolean showing) {
+                                if (!showing) {
+                                    return Observable.never();
+                                }
+                                Object value = latest.get();
+                                return value == NO_VALUE ? recordingLatest : recordingLatest.startWith((T) value);
+                            }
+                        });
+            }
+        });
+    }
+
+    private static final Object NO_VALUE = new Object();
+
     /**
      * Predicates that help with filtering observables for specific component events. 
      */
@@ -20,12 +20,10 @@ import java.awt.event.ContainerEvent;
 import java.awt.event.ContainerListener;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
+import rx.Observer;
 import rx.functions.Func1;
 import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.swing.sources.SharedListeners.Kind;
 
 public enum ContainerEventSource { ; // no instances
 
@@ -33,30 +31,36 @@ public enum ContainerEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromContainerEvents
      */
     public static Observable<ContainerEvent> fromContainerEventsOf(final Container container) {
-        return Observable.create(new OnSubscribe<ContainerEvent>() {
-            @Override
-            public void call(final Subscriber<? super ContainerEvent> subscriber) {
-                final ContainerListener listener = new ContainerListener() {
-                    @Override
-                    public void componentRemoved(ContainerEvent event) {
-                        subscriber.onNext(event);
-                    }
-                    @Override
-                    public void componentAdded(ContainerEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                container.addContainerListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        container.removeContainerListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-          .observeOn(SwingScheduler.getInstance());
+        return SharedListeners.observe(container, CONTAINER)
+                .observeOn(SwingScheduler.getInstance());
     }
+
+    private static final Kind<Container, ContainerEvent, ContainerListener> CONTAINER = new Kind<Container, ContainerEvent, ContainerListener>("ContainerListener") {
+        @Override
+        ContainerListener createListener(final Observer<? super ContainerEvent> observer) {
+            return new ContainerListener() {
+                @Override
+                public void componentRemoved(ContainerEvent event) {
+                    observer.onNext(event);
+                }
+
+                @Override
+                public void componentAdded(ContainerEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Container container, ContainerListener listener) {
+            container.addContainerListener(listener);
+        }
+
+        @Override
+        void removeListener(Container container, ContainerListener listener) {
+            container.removeContainerListener(listener);
+        }
+    };
     
     public static enum Predicate implements Func1<ContainerEvent, Boolean> {
         COMPONENT_ADDED(ContainerEvent.COMPONENT_ADDED),
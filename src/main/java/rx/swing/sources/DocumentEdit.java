@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import javax.swing.text.Document;
+
+/**
+ * An insertion into or a removal from the text of a {@link Document}.
+ * <p>
+ * Only the inserted text is copied out of the document, so an edit costs as much as the text it inserts,
+ * whatever the size of the document. The text of a removal is gone by the time the document reports it, so
+ * only its length is known.
+ */
+public final class DocumentEdit {
+
+    private final Document document;
+    private final int offset;
+    private final int removedLength;
+    private final CharSequence insertedText;
+
+    /* package */DocumentEdit(Document document, int offset, int removedLength, CharSequence insertedText) {
+        this.document = document;
+        this.offset = offset;
+        this.removedLength = removedLength;
+        this.insertedText = insertedText;
+    }
+
+    /**
+     * @return the edited document
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * @return the offset in the document at which text was removed or inserted
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of removed characters, 0 for an insertion
+     */
+    public int getRemovedLength() {
+        return removedLength;
+    }
+
+    /**
+     * @return the inserted text, empty for a removal
+     */
+    public CharSequence getInsertedText() {
+        return insertedText;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentEdit[offset=" + offset + ", removedLength=" + removedLength + ", insertedLength="
+                + insertedText.length() + "]";
+    }
+}
@@ -17,14 +17,12 @@ package rx.swing.sources;
 
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
 public enum DocumentEventSource { ; // no instances
 
@@ -32,34 +30,84 @@ public enum DocumentEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromDocumentEvents(Document)
      */
     public static Observable<DocumentEvent> fromDocumentEventsOf(final Document document) {
-        return Observable.create(new OnSubscribe<DocumentEvent>() {
-            @Override
-            public void call(final Subscriber<? super DocumentEvent> subscriber) {
-                final DocumentListener listener = new DocumentListener() {
-                    @Override
-                    public void insertUpdate(DocumentEvent event) {
-                        subscriber.onNext(event);
-                    }
+        return SharedListeners.observe(document, DOCUMENT);
+    }
 
-                    @Override
-                    public void removeUpdate(DocumentEvent event) {
-                        subscriber.onNext(event);
-                    }
+    private static final Kind<Document, DocumentEvent, DocumentListener> DOCUMENT = new Kind<Document, DocumentEvent, DocumentListener>("DocumentListener") {
+        @Override
+        DocumentListener createListener(final Observer<? super DocumentEvent> observer) {
+            return new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void changedUpdate(DocumentEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                document.addDocumentListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        document.removeDocumentListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
+                @Override
+                public void removeUpdate(DocumentEvent event) {
+                    observer.onNext(event);
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Document document, DocumentListener listener) {
+            document.addDocumentListener(listener);
+        }
+
+        @Override
+        void removeListener(Document document, DocumentListener listener) {
+            document.removeDocumentListener(listener);
+        }
+    };
+
+    /**
+     * @see rx.observables.SwingObservable#fromDocumentEdits(Document)
+     */
+    public static Observable<DocumentEdit> fromDocumentEditsOf(final Document document) {
+        return SharedListeners.observe(document, DOCUMENT_EDIT);
     }
+
+    private static final Kind<Document, DocumentEdit, DocumentListener> DOCUMENT_EDIT = new Kind<Document, DocumentEdit, DocumentListener>("DocumentListener") {
+        @Override
+        DocumentListener createListener(final Observer<? super DocumentEdit> observer) {
+            return new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent event) {
+                    // copied right away, a buffered event could no longer find its text
+                    Document document = event.getDocument();
+                    try {
+                        String text = document.getText(event.getOffset(), event.getLength());
+                        observer.onNext(new DocumentEdit(document, event.getOffset(), 0, text));
+                    } catch (BadLocationException e) {
+                        throw new IllegalStateException("The inserted text is not in the document", e);
+                    }
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent event) {
+                    observer.onNext(new DocumentEdit(event.getDocument(), event.getOffset(), event.getLength(), ""));
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent event) {
+                    // attributes only, the text did not change
+                }
+            };
+        }
+
+        @Override
+        void addListener(Document document, DocumentListener listener) {
+            document.addDocumentListener(listener);
+        }
+
+        @Override
+        void removeListener(Document document, DocumentListener listener) {
+            document.removeDocumentListener(listener);
+        }
+    };
 }
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.util.Arrays;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+import rx.functions.Action1;
+
+/**
+ * The start offsets of the lines of a {@link Document}, kept up to date with its {@link DocumentEdit}s instead
+ * of scanning the whole text after every edit:
+ * <pre>
+ * DocumentLineIndex lines = DocumentLineIndex.of(document);
+ * SwingObservable.fromDocumentEdits(document).subscribe(lines);
+ * </pre>
+ * An edit costs the length of its inserted text plus moving the start offsets of the lines behind it. Lines
+ * are separated by <code>'\n'</code>, to which the Swing editor kits convert all line separators.
+ * <p>
+ * Like the document, an index must only be created, updated and read on the Swing UI thread, and edits have to
+ * be applied in order, starting with the first edit after the index was created.
+ */
+public final class DocumentLineIndex implements Action1<DocumentEdit> {
+
+    // the first lineCount entries are used, lineStarts[0] is always 0
+    private int[] lineStarts = new int[16];
+    private int lineCount = 1;
+
+    private DocumentLineIndex() {
+    }
+
+    /**
+     * Creates the index of the current text of a document, reading the text in chunks without copying it.
+     */
+    public static DocumentLineIndex of(Document document) {
+        DocumentLineIndex index = new DocumentLineIndex();
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+        int offset = 0;
+        int length = document.getLength();
+        try {
+            while (offset < length) {
+                document.getText(offset, length - offset, segment);
+                for (int i = 0; i < segment.count; i++) {
+                    if (segment.array[segment.offset + i] == '\n') {
+                        index.append(offset + i + 1);
+                    }
+                }
+                offset += segment.count;
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException("The document changed while it was indexed", e);
+        }
+        return index;
+    }
+
+    /**
+     * Applies an edit of the document.
+     */
+    @Override
+    public void call(DocumentEdit edit) {
+        if (edit.getRemovedLength() > 0) {
+            remove(edit.getOffset(), edit.getRemovedLength());
+        }
+        if (edit.getInsertedText().length() > 0) {
+            insert(edit.getOffset(), edit.getInsertedText());
+        }
+    }
+
+    /**
+     * @return the number of lines, at least 1
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the offset in the document of the first character of the given line
+     */
+    public int getLineStartOffset(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("line " + line + " of " + lineCount);
+        }
+        return lineStarts[line];
+    }
+
+    /**
+     * @return the line containing the given offset in the document
+     */
+    public int getLineOfOffset(int offset) {
+        if (offset < 0) {
+            throw new IndexOutOfBoundsException("offset " + offset);
+        }
+        return firstLineStartingAfter(offset) - 1;
+    }
+
+    private void append(int lineStart) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lineStarts[lineCount++] = lineStart;
+    }
+
+    private void insert(int offset, CharSequence text) {
+        int length = text.length();
+        int newLines = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                newLines++;
+            }
+        }
+        int first = firstLineStartingAfter(offset);
+        if (newLines > 0) {
+            if (lineCount + newLines > lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, Math.max(lineCount + newLines, lineStarts.length * 2));
+            }
+            System.arraycopy(lineStarts, first, lineStarts, first + newLines, lineCount - first);
+            int line = first;
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(i) == '\n') {
+                    lineStarts[line++] = offset + i + 1;
+                }
+            }
+            lineCount += newLines;
+        }
+        for (int line = first + newLines; line < lineCount; line++) {
+            lineStarts[line] += length;
+        }
+    }
+
+    private void remove(int offset, int length) {
+        // the lines that started within the removed text lost their line separator
+        int first = firstLineStartingAfter(offset);
+        int behind = firstLineStartingAfter(offset + length);
+        System.arraycopy(lineStarts, behind, lineStarts, first, lineCount - behind);
+        lineCount -= behind - first;
+        for (int line = first; line < lineCount; line++) {
+            lineStarts[line] -= length;
+        }
+    }
+
+    private int firstLineStartingAfter(int offset) {
+        int low = 0;
+        int high = lineCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lineStarts[middle] > offset) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Producer;
+import rx.Scheduler.Worker;
+import rx.Subscriber;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Action0;
+import rx.schedulers.SwingScheduler;
+
+/**
+ * Hands the events of a Swing event source to one subscriber as it requests them, buffering at most a given
+ * number of events and handling overflow according to an {@link OverflowStrategy}.
+ * <p>
+ * Most events arrive on the Swing UI thread, but some listeners are called on whatever thread changes their
+ * model, e.g. a {@link javax.swing.text.Document} edited by a worker thread. So the buffer is guarded by this
+ * producer, and only one thread at a time emits: an event that arrives while another thread emits is buffered
+ * and emitted by that thread, in order. An event that the emitting thread causes itself is still passed on
+ * directly if it may be, like the listeners would. Requests from other threads than the Swing UI thread only
+ * schedule the drain onto it, so buffered events are emitted where the source usually emits them.
+ * <p>
+ * The overflow strategy only applies to events that were not requested. While the subscriber requested an
+ * unbounded amount, which is the default, events that wait for another thread to emit them are all kept, and
+ * nothing is buffered at all unless two threads emit at the same time.
+ */
+/* package */final class EventProducer<T> implements Producer {
+
+    private final Subscriber<? super T> child;
+    private final OverflowStrategy strategy;
+    private final int capacity;
+    private final AtomicLong requested = new AtomicLong();
+    private final Action0 drain = new Action0() {
+        @Override
+        public void call() {
+            drain();
+        }
+    };
+    private volatile Worker worker;
+
+    // guarded by this
+    private Object[] buffer;
+    private int head;
+    private int size;
+    // the thread that emits, null if none does
+    private Thread emitter;
+    private boolean done;
+    private Throwable error;
+
+    EventProducer(Subscriber<? super T> child, OverflowStrategy strategy, int capacity) {
+        this.child = child;
+        this.strategy = strategy;
+        this.capacity = strategy == OverflowStrategy.LATEST ? 1 : capacity;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n >= 0 required but it was " + n);
+        }
+        if (n == 0 || addRequested(n) != 0) {
+            return;
+        }
+        if (SwingScheduler.isEventDispatchThread()) {
+            drain();
+        } else {
+            worker().schedule(drain);
+        }
+    }
+
+    private Worker worker() {
+        Worker w = worker;
+        if (w == null) {
+            synchronized (this) {
+                w = worker;
+                if (w == null) {
+                    w = SwingScheduler.getInstance().createWorker();
+                    child.add(w);
+                    worker = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    private long addRequested(long n) {
+        for (;;) {
+            long current = requested.get();
+            long next = current + n;
+            if (next < 0) {
+                next = Long.MAX_VALUE;
+            }
+            if (requested.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * May be called on any thread.
+     */
+    void onNext(T event) {
+        Thread current = Thread.currentThread();
+        boolean reentrant;
+        boolean direct;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            reentrant = emitter == current;
+            if (emitter != null && !reentrant) {
+                // the emitting thread finds it in the buffer
+                offer(event);
+                return;
+            }
+            direct = size == 0 && consumeRequested();
+            if (!direct) {
+                offer(event);
+            }
+            if (!reentrant) {
+                emitter = current;
+            } else if (!direct) {
+                // the subscriber caused it in its onNext, the loop it returns to drains the buffer
+                return;
+            }
+        }
+        if (reentrant) {
+            // passed on like the listener would do it
+            child.onNext(event);
+            return;
+        }
+        boolean released = false;
+        try {
+            if (direct) {
+                child.onNext(event);
+            }
+            released = true;
+            emitBuffered();
+        } finally {
+            if (!released) {
+                release();
+            }
+        }
+    }
+
+    private void drain() {
+        synchronized (this) {
+            if (emitter != null) {
+                // the emitting thread checks the requested amount again before it stops
+                return;
+            }
+            emitter = Thread.currentThread();
+        }
+        emitBuffered();
+    }
+
+    /**
+     * Emits the buffered events while they are requested. Must only be called by the emitting thread, which is
+     * no longer the emitting thread afterwards.
+     */
+    private void emitBuffered() {
+        boolean released = false;
+        try {
+            for (;;) {
+                T event = null;
+                Throwable e;
+                synchronized (this) {
+                    e = error;
+                    error = null;
+                    if (e != null || size == 0 || done || child.isUnsubscribed() || !consumeRequested()) {
+                        emitter = null;
+                        released = true;
+                    } else {
+                        event = poll();
+                    }
+                }
+                if (e != null) {
+                    child.onError(e);
+                    child.unsubscribe();
+                }
+                if (released) {
+                    return;
+                }
+                child.onNext(event);
+            }
+        } finally {
+            if (!released) {
+                release();
+            }
+        }
+    }
+
+    private synchronized void release() {
+        emitter = null;
+    }
+
+    // guarded by this
+    private boolean consumeRequested() {
+        long r = requested.get();
+        if (r == 0) {
+            return false;
+        }
+        if (r != Long.MAX_VALUE) {
+            requested.decrementAndGet();
+        }
+        return true;
+    }
+
+    // guarded by this
+    private void offer(T event) {
+        if (buffer == null) {
+            buffer = new Object[capacity];
+        }
+        if (size == buffer.length && size < requested.get()) {
+            // all of them were requested, they only wait for the emitting thread
+            grow();
+        }
+        if (size < buffer.length) {
+            buffer[(head + size++) % buffer.length] = event;
+            return;
+        }
+        switch (strategy) {
+        case DROP_OLDEST:
+            buffer[head] = event;
+            head = (head + 1) % buffer.length;
+            break;
+        case DROP_NEWEST:
+            break;
+        case LATEST:
+            buffer[(head + size - 1) % buffer.length] = event;
+            break;
+        default:
+            done = true;
+            buffer = null;
+            size = 0;
+            // passed on by the emitting thread, so it cannot overlap an onNext
+            error = new MissingBackpressureException("More than " + capacity
+                    + " Swing events arrived without being requested");
+        }
+    }
+
+    // guarded by this
+    private void grow() {
+        Object[] grown = new Object[buffer.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = buffer[(head + i) % buffer.length];
+        }
+        buffer = grown;
+        head = 0;
+    }
+
+    // guarded by this
+    private T poll() {
+        @SuppressWarnings("unchecked")
+        T event = (T) buffer[head];
+        buffer[head] = null;
+        head = (head + 1) % buffer.length;
+        size--;
+        return event;
+    }
+}
@@ -16,12 +16,9 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
+import rx.Observer;
 import rx.functions.Func1;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.awt.event.FocusEvent;
@@ -33,32 +30,35 @@ public enum FocusEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromFocusEvents
      */
     public static Observable<FocusEvent> fromFocusEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<FocusEvent>() {
-            @Override
-            public void call(final Subscriber<? super FocusEvent> subscriber) {
-                final FocusListener listener = new FocusListener() {
+        return SharedListeners.observe(component, FOCUS);
+    }
 
-                    @Override
-                    public void focusGained(FocusEvent event) {
-                        subscriber.onNext(event);
-                    }
+    private static final Kind<Component, FocusEvent, FocusListener> FOCUS = new Kind<Component, FocusEvent, FocusListener>("FocusListener") {
+        @Override
+        FocusListener createListener(final Observer<? super FocusEvent> observer) {
+            return new FocusListener() {
+                @Override
+                public void focusGained(FocusEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void focusLost(FocusEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addFocusListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeFocusListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+                @Override
+                public void focusLost(FocusEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, FocusListener listener) {
+            component.addFocusListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, FocusListener listener) {
+            component.removeFocusListener(listener);
+        }
+    };
 
     /**
      * Predicates that help with filtering observables for specific focus events.
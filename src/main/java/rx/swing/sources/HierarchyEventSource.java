@@ -21,10 +21,9 @@ import java.awt.event.HierarchyEvent;
 import java.awt.event.HierarchyListener;
 
 import rx.*;
-import rx.Observable.OnSubscribe;
 import rx.functions.*;
 import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.swing.sources.SharedListeners.Kind;
 
 public enum HierarchyEventSource { ; // no instances
 
@@ -32,55 +31,91 @@ public enum HierarchyEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromHierachyEvents
      */
     public static Observable<HierarchyEvent> fromHierarchyEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<HierarchyEvent>() {
+        return SharedListeners.observe(component, HIERARCHY);
+    }
+
+    /**
+     * Emits whether the component is showing: once on subscription and then whenever it changes, e.g. because
+     * the component or one of its ancestors was hidden, or its tab in a tabbed pane was deselected. Unlike the
+     * shown and hidden component events, this covers the changes of the ancestors.
+     */
+    public static Observable<Boolean> fromShowingStatesOf(final Component component) {
+        return Observable.defer(new Func0<Observable<Boolean>>() {
             @Override
-            public void call(final Subscriber<? super HierarchyEvent> subscriber) {
-                final HierarchyListener hiearchyListener = new HierarchyListener() {
-                    @Override
-                    public void hierarchyChanged(HierarchyEvent e) {
-                        subscriber.onNext(e);
-                    }
-            };
-            component.addHierarchyListener(hiearchyListener);
-            subscriber.add(Subscriptions.create(new Action0() {
-                @Override
-                public void call() {
-                    component.removeHierarchyListener(hiearchyListener);
-                }
-            }));
+            public Observable<Boolean> call() {
+                return fromHierarchyEventsOf(component)
+                        .filter(new Func1<HierarchyEvent, Boolean>() {
+                            @Override
+                            public Boolean call(HierarchyEvent event) {
+                                return (event.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0;
+                            }
+                        })
+                        .map(new Func1<HierarchyEvent, Boolean>() {
+                            @Override
+                            public Boolean call(HierarchyEvent event) {
+                                return component.isShowing();
+                            }
+                        })
+                        .startWith(component.isShowing());
             }
-        }).subscribeOn(SwingScheduler.getInstance())
-          .unsubscribeOn(SwingScheduler.getInstance());
+        }).subscribeOn(SwingScheduler.getInstance()).distinctUntilChanged();
     }
+
+    private static final Kind<Component, HierarchyEvent, HierarchyListener> HIERARCHY = new Kind<Component, HierarchyEvent, HierarchyListener>("HierarchyListener") {
+        @Override
+        HierarchyListener createListener(final Observer<? super HierarchyEvent> observer) {
+            return new HierarchyListener() {
+                @Override
+                public void hierarchyChanged(HierarchyEvent e) {
+                    observer.onNext(e);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, HierarchyListener listener) {
+            component.addHierarchyListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, HierarchyListener listener) {
+            component.removeHierarchyListener(listener);
+        }
+    };
     
     /**
      * @see rx.observables.SwingObservable#fromHierachyBoundsEvents
      */
     public static Observable<HierarchyEvent> fromHierarchyBoundsEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<HierarchyEvent>() {
-            @Override
-            public void call(final Subscriber<? super HierarchyEvent> subscriber) {
-                final HierarchyBoundsListener hiearchyBoundsListener = new HierarchyBoundsListener() {
-                    @Override
-                    public void ancestorMoved(HierarchyEvent e) {
-                        subscriber.onNext(e);
-                    }
-                    @Override
-                    public void ancestorResized(HierarchyEvent e) {
-                        subscriber.onNext(e);
-                    }
-                };
-                component.addHierarchyBoundsListener(hiearchyBoundsListener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeHierarchyBoundsListener(hiearchyBoundsListener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-          .unsubscribeOn(SwingScheduler.getInstance());
+        return SharedListeners.observe(component, HIERARCHY_BOUNDS);
     }
+
+    private static final Kind<Component, HierarchyEvent, HierarchyBoundsListener> HIERARCHY_BOUNDS = new Kind<Component, HierarchyEvent, HierarchyBoundsListener>("HierarchyBoundsListener") {
+        @Override
+        HierarchyBoundsListener createListener(final Observer<? super HierarchyEvent> observer) {
+            return new HierarchyBoundsListener() {
+                @Override
+                public void ancestorMoved(HierarchyEvent e) {
+                    observer.onNext(e);
+                }
+
+                @Override
+                public void ancestorResized(HierarchyEvent e) {
+                    observer.onNext(e);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, HierarchyBoundsListener listener) {
+            component.addHierarchyBoundsListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, HierarchyBoundsListener listener) {
+            component.removeHierarchyBoundsListener(listener);
+        }
+    };
     
     public static enum Predicate implements Func1<HierarchyEvent, Boolean>
     {
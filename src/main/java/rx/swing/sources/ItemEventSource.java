@@ -16,11 +16,8 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.awt.event.ItemEvent;
@@ -29,24 +26,28 @@ import java.awt.event.ItemListener;
 public enum ItemEventSource { ; // no instances
 
     public static Observable<ItemEvent> fromItemEventsOf(final ItemSelectable itemSelectable) {
-        return Observable.create(new OnSubscribe<ItemEvent>() {
-            @Override
-            public void call(final Subscriber<? super ItemEvent> subscriber) {
-                final ItemListener listener = new ItemListener() {
-                    @Override
-                    public void itemStateChanged( ItemEvent event ) {
-                        subscriber.onNext(event);
-                    }
-                };
-                itemSelectable.addItemListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        itemSelectable.removeItemListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
+        return SharedListeners.observe(itemSelectable, ITEM);
     }
+
+    private static final Kind<ItemSelectable, ItemEvent, ItemListener> ITEM = new Kind<ItemSelectable, ItemEvent, ItemListener>("ItemListener") {
+        @Override
+        ItemListener createListener(final Observer<? super ItemEvent> observer) {
+            return new ItemListener() {
+                @Override
+                public void itemStateChanged( ItemEvent event ) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(ItemSelectable itemSelectable, ItemListener listener) {
+            itemSelectable.addItemListener(listener);
+        }
+
+        @Override
+        void removeListener(ItemSelectable itemSelectable, ItemListener listener) {
+            itemSelectable.removeItemListener(listener);
+        }
+    };
 }
@@ -16,17 +16,17 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
+import rx.Observable.Operator;
+import rx.Observer;
 import rx.Subscriber;
-import rx.functions.Action0;
 import rx.functions.Func1;
 import rx.functions.Func2;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -37,37 +37,40 @@ public enum KeyEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromKeyEvents(Component)
      */
     public static Observable<KeyEvent> fromKeyEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<KeyEvent>() {
-            @Override
-            public void call(final Subscriber<? super KeyEvent> subscriber) {
-                final KeyListener listener = new KeyListener() {
-                    @Override
-                    public void keyPressed(KeyEvent event) {
-                        subscriber.onNext(event);
-                    }
+        return SharedListeners.observe(component, KEY);
+    }
 
-                    @Override
-                    public void keyReleased(KeyEvent event) {
-                        subscriber.onNext(event);
-                    }
+    private static final Kind<Component, KeyEvent, KeyListener> KEY = new Kind<Component, KeyEvent, KeyListener>("KeyListener") {
+        @Override
+        KeyListener createListener(final Observer<? super KeyEvent> observer) {
+            return new KeyListener() {
+                @Override
+                public void keyPressed(KeyEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void keyTyped(KeyEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addKeyListener(listener);
+                @Override
+                public void keyReleased(KeyEvent event) {
+                    observer.onNext(event);
+                }
 
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeKeyListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+                @Override
+                public void keyTyped(KeyEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, KeyListener listener) {
+            component.addKeyListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, KeyListener listener) {
+            component.removeKeyListener(listener);
+        }
+    };
 
     /**
      * @see rx.observables.SwingObservable#fromPressedKeys(Component)
@@ -101,5 +104,83 @@ public enum KeyEventSource { ; // no instances
         
         return filteredKeyEvents.scan(Collections.<Integer>emptySet(), new CollectKeys());
     }
-    
+
+    /**
+     * @see rx.observables.SwingObservable#fromPressedKeyCodes(Component)
+     */
+    public static Observable<PressedKeys> pressedKeyCodesOf(Component component) {
+        return fromKeyEventsOf(component).lift(CollectPressedKeys.INSTANCE).startWith(PressedKeys.NONE);
+    }
+
+    /**
+     * Keeps the pressed keys of each subscriber in a bitset and emits a snapshot whenever it changes.
+     */
+    private static final class CollectPressedKeys implements Operator<PressedKeys, KeyEvent> {
+        static final CollectPressedKeys INSTANCE = new CollectPressedKeys();
+
+        @Override
+        public Subscriber<? super KeyEvent> call(final Subscriber<? super PressedKeys> child) {
+            return new Subscriber<KeyEvent>(child) {
+                // only accessed by the Swing UI thread, large enough for the key codes of a standard keyboard
+                private long[] pressed = new long[4];
+
+                @Override
+                public void onNext(KeyEvent event) {
+                    int keyCode = event.getKeyCode();
+                    boolean changed;
+                    switch (event.getID()) {
+                        case KeyEvent.KEY_PRESSED:
+                            changed = press(keyCode);
+                            break;
+
+                        case KeyEvent.KEY_RELEASED:
+                            changed = release(keyCode);
+                            break;
+
+                        default:
+                            changed = false;
+                    }
+                    if (changed) {
+                        child.onNext(PressedKeys.of(pressed));
+                    } else {
+                        // e.g. auto-repeat, the event was not passed on
+                        request(1);
+                    }
+                }
+
+                private boolean press(int keyCode) {
+                    if (keyCode < 0) {
+                        return false;
+                    }
+                    int index = keyCode >> 6;
+                    if (index >= pressed.length) {
+                        pressed = Arrays.copyOf(pressed, Math.max(index + 1, pressed.length * 2));
+                    }
+                    long word = pressed[index];
+                    pressed[index] = word | 1L << keyCode;
+                    return pressed[index] != word;
+                }
+
+                private boolean release(int keyCode) {
+                    int index = keyCode >> 6;
+                    if (keyCode < 0 || index >= pressed.length) {
+                        return false;
+                    }
+                    long word = pressed[index];
+                    pressed[index] = word & ~(1L << keyCode);
+                    return pressed[index] != word;
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    child.onError(e);
+                }
+
+                @Override
+                public void onCompleted() {
+                    child.onCompleted();
+                }
+            };
+        }
+    }
 }
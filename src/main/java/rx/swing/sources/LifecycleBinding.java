@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.awt.Component;
+import java.awt.event.HierarchyEvent;
+
+import rx.Observable;
+import rx.Observable.Transformer;
+import rx.functions.Func1;
+
+/**
+ * How a stream is bound to the lifecycle of a component, i.e. to its displayability and whether it is showing.
+ * <p>
+ * The bindings watch the hierarchy events of the component, through the listener that
+ * {@link HierarchyEventSource#fromHierarchyEventsOf(Component)} shares between all subscribers of a component.
+ * Only changes count: a stream bound to a component that is not displayable yet, because its window has not
+ * been packed, runs until the component was displayable and became undisplayable again.
+ *
+ * @see rx.observables.SwingObservable#bindToLifecycle(Component, LifecycleBinding)
+ */
+public enum LifecycleBinding {
+
+    /**
+     * Completes the stream when the component becomes undisplayable, e.g. because its window was disposed.
+     */
+    UNTIL_UNDISPLAYABLE,
+
+    /**
+     * Completes the stream when the component stops showing, e.g. because it was hidden or its tab was
+     * deselected, or becomes undisplayable.
+     */
+    UNTIL_HIDDEN,
+
+    /**
+     * Unsubscribes from the stream while the component is not showing and subscribes to it again when the
+     * component is shown, so hidden components cause no upstream work. Completes when the component becomes
+     * undisplayable.
+     */
+    PAUSE_WHILE_HIDDEN;
+
+    /**
+     * @see rx.observables.SwingObservable#bindToLifecycle(Component, LifecycleBinding)
+     */
+    public <T> Transformer<T, T> bind(final Component component) {
+        return new Transformer<T, T>() {
+            @Override
+            public Observable<T> call(final Observable<T> upstream) {
+                Observable<HierarchyEvent> hierarchyEvents = HierarchyEventSource.fromHierarchyEventsOf(component);
+                Observable<HierarchyEvent> undisplayable = hierarchyEvents.filter(becameUndisplayable(component));
+                switch (LifecycleBinding.this) {
+                case UNTIL_UNDISPLAYABLE:
+                    return upstream.takeUntil(undisplayable);
+                case UNTIL_HIDDEN:
+                    return upstream.takeUntil(hierarchyEvents.filter(stoppedShowing(component)));
+                default:
+                    return HierarchyEventSource.fromShowingStatesOf(component)
+                            .switchMap(new Func1<Boolean, Observable<T>>() {
+                                @Override
+                                public Observable<T> call(Boolean showing) {
+                                    return showing ? upstream : Observable.<T> never();
+                                }
+                            })
+                            .takeUntil(undisplayable);
+                }
+            }
+        };
+    }
+
+    private static Func1<HierarchyEvent, Boolean> becameUndisplayable(final Component component) {
+        return new Func1<HierarchyEvent, Boolean>() {
+            @Override
+            public Boolean call(HierarchyEvent event) {
+                return (event.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0
+                        && !component.isDisplayable();
+            }
+        };
+    }
+
+    private static Func1<HierarchyEvent, Boolean> stoppedShowing(final Component component) {
+        return new Func1<HierarchyEvent, Boolean>() {
+            @Override
+            public Boolean call(HierarchyEvent event) {
+                return (event.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && !component.isShowing()
+                        || (event.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0
+                        && !component.isDisplayable();
+            }
+        };
+    }
+}
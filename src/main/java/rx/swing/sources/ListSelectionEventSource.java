@@ -16,11 +16,8 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
 import javax.swing.ListSelectionModel;
 import javax.swing.event.ListSelectionEvent;
@@ -32,25 +29,28 @@ public enum ListSelectionEventSource { ; // no instances
 	 * @see rx.observables.SwingObservable#fromListSelectionEvents(ListSelectionModel)
 	 */
 	public static Observable<ListSelectionEvent> fromListSelectionEventsOf(final ListSelectionModel listSelectionModel) {
-		return Observable.create(new OnSubscribe<ListSelectionEvent>() {
-			@Override
-			public void call(final Subscriber<? super ListSelectionEvent> subscriber) {
-				final ListSelectionListener listener = new ListSelectionListener() {
-					@Override
-					public void valueChanged(final ListSelectionEvent event) {
-						subscriber.onNext(event);
-					}
-
-				};
-				listSelectionModel.addListSelectionListener(listener);
-				subscriber.add(Subscriptions.create(new Action0() {
-					@Override
-					public void call() {
-						listSelectionModel.removeListSelectionListener(listener);
-					}
-				}));
-			}
-		}).subscribeOn(SwingScheduler.getInstance())
-				.unsubscribeOn(SwingScheduler.getInstance());
+		return SharedListeners.observe(listSelectionModel, LIST_SELECTION);
 	}
+
+	private static final Kind<ListSelectionModel, ListSelectionEvent, ListSelectionListener> LIST_SELECTION = new Kind<ListSelectionModel, ListSelectionEvent, ListSelectionListener>("ListSelectionListener") {
+		@Override
+		ListSelectionListener createListener(final Observer<? super ListSelectionEvent> observer) {
+			return new ListSelectionListener() {
+				@Override
+				public void valueChanged(final ListSelectionEvent event) {
+					observer.onNext(event);
+				}
+			};
+		}
+
+		@Override
+		void addListener(ListSelectionModel listSelectionModel, ListSelectionListener listener) {
+			listSelectionModel.addListSelectionListener(listener);
+		}
+
+		@Override
+		void removeListener(ListSelectionModel listSelectionModel, ListSelectionListener listener) {
+			listSelectionModel.removeListSelectionListener(listener);
+		}
+	};
 }
@@ -16,15 +16,19 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
+import rx.Observable.Operator;
+import rx.Observer;
+import rx.Producer;
+import rx.Scheduler.Worker;
 import rx.Subscriber;
 import rx.functions.Action0;
-import rx.functions.Func2;
 import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public enum MouseEventSource {
     ; // no instances
@@ -33,114 +37,315 @@ public enum MouseEventSource {
      * @see rx.observables.SwingObservable#fromMouseEvents
      */
     public static Observable<MouseEvent> fromMouseEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<MouseEvent>() {
-            @Override
-            public void call(final Subscriber<? super MouseEvent> subscriber) {
-                final MouseListener listener = new MouseListener() {
-                    @Override
-                    public void mouseClicked(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
+        return SharedListeners.observe(component, MOUSE);
+    }
 
-                    @Override
-                    public void mousePressed(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
+    private static final Kind<Component, MouseEvent, MouseListener> MOUSE = new Kind<Component, MouseEvent, MouseListener>("MouseListener") {
+        @Override
+        MouseListener createListener(final Observer<? super MouseEvent> observer) {
+            return new MouseListener() {
+                @Override
+                public void mouseClicked(MouseEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void mouseReleased(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
+                @Override
+                public void mousePressed(MouseEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void mouseEntered(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
+                @Override
+                public void mouseReleased(MouseEvent event) {
+                    observer.onNext(event);
+                }
 
-                    @Override
-                    public void mouseExited(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addMouseListener(listener);
+                @Override
+                public void mouseEntered(MouseEvent event) {
+                    observer.onNext(event);
+                }
 
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeMouseListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+                @Override
+                public void mouseExited(MouseEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, MouseListener listener) {
+            component.addMouseListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, MouseListener listener) {
+            component.removeMouseListener(listener);
+        }
+    };
 
     /**
      * @see rx.observables.SwingObservable#fromMouseMotionEvents
      */
     public static Observable<MouseEvent> fromMouseMotionEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<MouseEvent>() {
-            @Override
-            public void call(final Subscriber<? super MouseEvent> subscriber) {
-                final MouseMotionListener listener = new MouseMotionListener() {
-                    @Override
-                    public void mouseDragged(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
+        return SharedListeners.observe(component, MOUSE_MOTION);
+    }
 
-                    @Override
-                    public void mouseMoved(MouseEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addMouseMotionListener(listener);
+    private static final Kind<Component, MouseEvent, MouseMotionListener> MOUSE_MOTION = new Kind<Component, MouseEvent, MouseMotionListener>("MouseMotionListener") {
+        @Override
+        MouseMotionListener createListener(final Observer<? super MouseEvent> observer) {
+            return new MouseMotionListener() {
+                @Override
+                public void mouseDragged(MouseEvent event) {
+                    observer.onNext(event);
+                }
 
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeMouseMotionListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
+                @Override
+                public void mouseMoved(MouseEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, MouseMotionListener listener) {
+            component.addMouseMotionListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, MouseMotionListener listener) {
+            component.removeMouseMotionListener(listener);
+        }
+    };
+
+    /**
+     * @see rx.observables.SwingObservable#fromMouseMotionEvents(Component, CoalescingPolicy)
+     */
+    public static Observable<CoalescedMouseEvent> fromMouseMotionEventsOf(final Component component, final CoalescingPolicy policy) {
+        if (policy == null) {
+            throw new NullPointerException("policy");
+        }
+        return fromMouseMotionEventsOf(component).lift(new CoalesceMouseMotion(policy));
     }
 
     public static Observable<MouseWheelEvent> fromMouseWheelEvents(final Component component){
-        return Observable.create(new OnSubscribe<MouseWheelEvent>() {
-            @Override
-            public void call(final Subscriber<? super MouseWheelEvent> subscriber) {
-                final MouseWheelListener listener = new MouseWheelListener() {
-                    @Override
-                    public void mouseWheelMoved(MouseWheelEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addMouseWheelListener(listener);
-
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removeMouseWheelListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
+        return SharedListeners.observe(component, MOUSE_WHEEL);
     }
 
+    private static final Kind<Component, MouseWheelEvent, MouseWheelListener> MOUSE_WHEEL = new Kind<Component, MouseWheelEvent, MouseWheelListener>("MouseWheelListener") {
+        @Override
+        MouseWheelListener createListener(final Observer<? super MouseWheelEvent> observer) {
+            return new MouseWheelListener() {
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, MouseWheelListener listener) {
+            component.addMouseWheelListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, MouseWheelListener listener) {
+            component.removeMouseWheelListener(listener);
+        }
+    };
+
     /**
      * @see rx.observables.SwingObservable#fromRelativeMouseMotion
      */
     public static Observable<Point> fromRelativeMouseMotion(final Component component) {
-        final Observable<MouseEvent> events = fromMouseMotionEventsOf(component);
-        return Observable.zip(events, events.skip(1), new Func2<MouseEvent, MouseEvent, Point>() {
+        return fromRelativeMouseMotion(component, false);
+    }
+
+    /**
+     * @see rx.observables.SwingObservable#fromRelativeMouseMotion
+     */
+    public static Observable<Point> fromRelativeMouseMotion(final Component component, final boolean reuseDelta) {
+        return fromMouseMotionEventsOf(component).lift(new RelativeMouseMotion(reuseDelta));
+    }
+
+    /**
+     * Turns mouse motion events into the motion relative to the previous event. The last position is kept in
+     * primitive fields per subscriber, so there is a single listener and no buffering.
+     */
+    private static final class RelativeMouseMotion implements Operator<Point, MouseEvent> {
+        private final boolean reuseDelta;
+
+        RelativeMouseMotion(boolean reuseDelta) {
+            this.reuseDelta = reuseDelta;
+        }
+
+        @Override
+        public Subscriber<? super MouseEvent> call(final Subscriber<? super Point> child) {
+            return new Subscriber<MouseEvent>(child) {
+                // only accessed by the Swing UI thread
+                private final Point delta = reuseDelta ? new Point() : null;
+                private boolean hasLast;
+                private int lastX;
+                private int lastY;
+
+                @Override
+                public void onNext(MouseEvent event) {
+                    int x = event.getX();
+                    int y = event.getY();
+                    if (hasLast) {
+                        if (delta != null) {
+                            delta.x = x - lastX;
+                            delta.y = y - lastY;
+                            child.onNext(delta);
+                        } else {
+                            child.onNext(new Point(x - lastX, y - lastY));
+                        }
+                    } else {
+                        hasLast = true;
+                        // the first event only sets the origin, it was not passed on
+                        request(1);
+                    }
+                    lastX = x;
+                    lastY = y;
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    child.onError(e);
+                }
+
+                @Override
+                public void onCompleted() {
+                    child.onCompleted();
+                }
+            };
+        }
+    }
+
+    /**
+     * Merges mouse motion events according to a {@link CoalescingPolicy} and emits them as they are requested.
+     */
+    private static final class CoalesceMouseMotion implements Operator<CoalescedMouseEvent, MouseEvent> {
+        private final CoalescingPolicy policy;
+
+        CoalesceMouseMotion(CoalescingPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public Subscriber<? super MouseEvent> call(Subscriber<? super CoalescedMouseEvent> child) {
+            CoalescingSubscriber parent = new CoalescingSubscriber(child, policy);
+            child.add(parent);
+            child.add(parent.worker);
+            child.setProducer(parent.producer);
+            return parent;
+        }
+    }
+
+    private static final class CoalescingSubscriber extends Subscriber<MouseEvent> {
+        private final Subscriber<? super CoalescedMouseEvent> child;
+        private final boolean perTurn;
+        private final AtomicLong requested = new AtomicLong();
+        final Worker worker = SwingScheduler.getInstance().createWorker();
+        final Producer producer = new Producer() {
             @Override
-            public Point call(MouseEvent ev1, MouseEvent ev2) {
-                return new Point(ev2.getX() - ev1.getX(), ev2.getY() - ev1.getY());
+            public void request(long n) {
+                if (n < 0) {
+                    throw new IllegalArgumentException("n >= 0 required but it was " + n);
+                }
+                if (n > 0 && addRequested(n) == 0) {
+                    // runs right away on the Swing UI thread, so a request from within onNext is served in the loop
+                    worker.schedule(drain);
+                }
             }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+        };
+        private final Action0 drain = new Action0() {
+            @Override
+            public void call() {
+                drain();
+            }
+        };
+        private final Action0 endOfTurn = new Action0() {
+            @Override
+            public void call() {
+                flushScheduled = false;
+                drain();
+            }
+        };
+
+        // only accessed by the Swing UI thread
+        private MouseEvent latest;
+        private int count;
+        private boolean flushScheduled;
+        private boolean emitting;
+        private boolean missed;
+
+        CoalescingSubscriber(Subscriber<? super CoalescedMouseEvent> child, CoalescingPolicy policy) {
+            this.child = child;
+            this.perTurn = policy == CoalescingPolicy.PER_EDT_TURN;
+        }
+
+        private long addRequested(long n) {
+            for (;;) {
+                long current = requested.get();
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    return current;
+                }
+            }
+        }
+
+        @Override
+        public void onNext(MouseEvent event) {
+            latest = event;
+            count++;
+            if (!perTurn) {
+                drain();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                // a delayed action never runs inline, it waits for the pending UI events
+                worker.schedule(endOfTurn, 0, TimeUnit.MILLISECONDS);
+            }
+        }
 
+        private void drain() {
+            if (emitting) {
+                missed = true;
+                return;
+            }
+            emitting = true;
+            try {
+                do {
+                    missed = false;
+                    if (latest == null || (perTurn && flushScheduled) || child.isUnsubscribed()) {
+                        return;
+                    }
+                    long r = requested.get();
+                    if (r == 0) {
+                        return;
+                    }
+                    if (r != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    CoalescedMouseEvent coalesced = new CoalescedMouseEvent(latest, count);
+                    latest = null;
+                    count = 0;
+                    child.onNext(coalesced);
+                } while (missed);
+            } finally {
+                emitting = false;
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            child.onError(e);
+        }
+
+        @Override
+        public void onCompleted() {
+            child.onCompleted();
+        }
+    }
 }
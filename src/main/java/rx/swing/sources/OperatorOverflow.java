@@ -0,0 +1,58 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import rx.Observable.Operator;
+import rx.Subscriber;
+
+/**
+ * Requests all events of a Swing event source and hands them on through an {@link EventProducer} with the
+ * given strategy and capacity. The events may arrive on any thread.
+ */
+/* package */final class OperatorOverflow<T> implements Operator<T, T> {
+
+    private final OverflowStrategy strategy;
+    private final int capacity;
+
+    OperatorOverflow(OverflowStrategy strategy, int capacity) {
+        this.strategy = strategy;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Subscriber<? super T> call(final Subscriber<? super T> child) {
+        final EventProducer<T> producer = new EventProducer<T>(child, strategy, capacity);
+        Subscriber<T> parent = new Subscriber<T>() {
+            @Override
+            public void onNext(T event) {
+                producer.onNext(event);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                child.onError(e);
+            }
+
+            @Override
+            public void onCompleted() {
+                child.onCompleted();
+            }
+        };
+        child.add(parent);
+        child.setProducer(producer);
+        return parent;
+    }
+}
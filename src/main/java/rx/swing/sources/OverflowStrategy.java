@@ -0,0 +1,71 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import rx.Observable;
+import rx.Observable.Transformer;
+import rx.exceptions.MissingBackpressureException;
+
+/**
+ * What a Swing event source does with an event that arrives while its subscriber has no outstanding requests
+ * and the buffer of not yet requested events is full.
+ * <p>
+ * All sources buffer up to {@value #DEFAULT_CAPACITY} events per subscriber and then fail with {@link #ERROR}.
+ * Other strategies and capacities can be chosen per subscriber with
+ * {@link rx.observables.SwingObservable#onOverflow(OverflowStrategy, int)}.
+ */
+public enum OverflowStrategy {
+
+    /**
+     * Drops the oldest buffered event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drops the new event and keeps the buffered ones.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Keeps only the latest event, whatever the capacity: the new event replaces the buffered one.
+     */
+    LATEST,
+
+    /**
+     * Clears the buffer, unsubscribes from the source and fails with a {@link MissingBackpressureException}.
+     */
+    ERROR;
+
+    /**
+     * The capacity of the buffer of not yet requested events of the Swing event sources.
+     */
+    public static final int DEFAULT_CAPACITY = 128;
+
+    /**
+     * @see rx.observables.SwingObservable#onOverflow(OverflowStrategy, int)
+     */
+    public <T> Transformer<T, T> withCapacity(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        return new Transformer<T, T>() {
+            @Override
+            public Observable<T> call(Observable<T> events) {
+                return events.lift(new OperatorOverflow<T>(OverflowStrategy.this, capacity));
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable snapshot of the keys that were pressed at some point, by their {@link java.awt.event.KeyEvent}
+ * <code>VK_*</code> key codes.
+ * <p>
+ * The key codes are kept in a bitset, so {@link #contains(int)} neither boxes nor hashes. For iterating
+ * without allocation, use {@link #nextPressedKey(int)}:
+ * <pre>
+ * for (int keyCode = keys.nextPressedKey(0); keyCode >= 0; keyCode = keys.nextPressedKey(keyCode + 1)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class PressedKeys implements Iterable<Integer> {
+
+    /**
+     * No key is pressed.
+     */
+    public static final PressedKeys NONE = new PressedKeys(new long[0]);
+
+    // trimmed, the last word is never 0
+    private final long[] words;
+
+    private PressedKeys(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * @return a snapshot of the given bitset, which the snapshot does not refer to
+     */
+    /* package */static PressedKeys of(long[] bits) {
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0) {
+            length--;
+        }
+        return length == 0 ? NONE : new PressedKeys(Arrays.copyOf(bits, length));
+    }
+
+    /**
+     * @return whether the key with the given key code is pressed
+     */
+    public boolean contains(int keyCode) {
+        int index = keyCode >> 6;
+        return keyCode >= 0 && index < words.length && (words[index] & 1L << keyCode) != 0;
+    }
+
+    /**
+     * @return the lowest key code of a pressed key that is at least <code>fromKeyCode</code>, or -1 if there is
+     *         none
+     */
+    public int nextPressedKey(int fromKeyCode) {
+        int from = Math.max(0, fromKeyCode);
+        int index = from >> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & -1L << from;
+        for (;;) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    /**
+     * @return the number of pressed keys
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /**
+     * @return the key codes of the pressed keys in ascending order
+     */
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int next = nextPressedKey(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                int keyCode = next;
+                next = nextPressedKey(keyCode + 1);
+                return keyCode;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("PressedKeys is immutable");
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof PressedKeys && Arrays.equals(words, ((PressedKeys) obj).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int keyCode = nextPressedKey(0); keyCode >= 0; keyCode = nextPressedKey(keyCode + 1)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(keyCode);
+        }
+        return sb.append(']').toString();
+    }
+}
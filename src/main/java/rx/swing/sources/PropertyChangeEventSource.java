@@ -16,11 +16,8 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.beans.PropertyChangeEvent;
@@ -29,24 +26,28 @@ import java.beans.PropertyChangeListener;
 public enum PropertyChangeEventSource { ; // no instances
 
     public static Observable<PropertyChangeEvent> fromPropertyChangeEventsOf(final Component component) {
-        return Observable.create(new OnSubscribe<PropertyChangeEvent>() {
-            @Override
-            public void call(final Subscriber<? super PropertyChangeEvent> subscriber) {
-                final PropertyChangeListener listener = new PropertyChangeListener() {
-                    @Override
-                    public void propertyChange(PropertyChangeEvent event) {
-                        subscriber.onNext(event);
-                    }
-                };
-                component.addPropertyChangeListener(listener);
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        component.removePropertyChangeListener(listener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
+        return SharedListeners.observe(component, PROPERTY_CHANGE);
     }
+
+    private static final Kind<Component, PropertyChangeEvent, PropertyChangeListener> PROPERTY_CHANGE = new Kind<Component, PropertyChangeEvent, PropertyChangeListener>("PropertyChangeListener") {
+        @Override
+        PropertyChangeListener createListener(final Observer<? super PropertyChangeEvent> observer) {
+            return new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent event) {
+                    observer.onNext(event);
+                }
+            };
+        }
+
+        @Override
+        void addListener(Component component, PropertyChangeListener listener) {
+            component.addPropertyChangeListener(listener);
+        }
+
+        @Override
+        void removeListener(Component component, PropertyChangeListener listener) {
+            component.removePropertyChangeListener(listener);
+        }
+    };
 }
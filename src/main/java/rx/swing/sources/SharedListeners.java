@@ -0,0 +1,278 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import rx.Observable;
+import rx.Observable.OnSubscribe;
+import rx.Observer;
+import rx.Scheduler.Worker;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.schedulers.SwingScheduler;
+import rx.swing.monitor.SwingSubscriptionRegistry;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Shares one listener per (event source, kind of listener) between all subscribers.
+ * <p>
+ * The first subscriber installs the listener and the last one to unsubscribe removes it again, so fifty
+ * subscriptions to the mouse events of a table cost AWT a single entry in its listener chain. Events are
+ * fanned out through a copy-on-write array, so subscribing and unsubscribing while an event is dispatched is
+ * safe and the dispatch itself takes no lock.
+ * <p>
+ * Each subscriber gets an {@link EventProducer}, so all sources honour backpressure: events that were not
+ * requested yet are buffered up to {@link OverflowStrategy#DEFAULT_CAPACITY} and then fail the subscriber.
+ * The events are passed on from the thread that calls the listener, which is not always the Swing UI thread:
+ * document and model listeners are called by the thread that changes the model.
+ * <p>
+ * The registry only holds the event sources weakly, so an event source that is dropped without unsubscribing
+ * can still be garbage collected, as long as the subscribers do not refer to it. Sources that are equal to, but
+ * not the same object as, a registered one get a listener of their own.
+ * <p>
+ * Subscriptions are recorded by the installed {@link SwingSubscriptionRegistry}, if there is one.
+ */
+/* package */final class SharedListeners {
+
+    private SharedListeners() {
+        // no instances
+    }
+
+    /**
+     * A kind of listener: how to create it and how to add it to and remove it from an event source.
+     *
+     * @param <S>
+     *            the type of the event source
+     * @param <T>
+     *            the type of the events
+     * @param <L>
+     *            the type of the listener
+     */
+    abstract static class Kind<S, T, L> {
+        private final String name;
+
+        /**
+         * @param name
+         *            describes the kind in reports, usually the name of the listener interface
+         */
+        Kind(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return a listener that hands every event to {@link Observer#onNext}
+         */
+        abstract L createListener(Observer<? super T> observer);
+
+        abstract void addListener(S source, L listener);
+
+        abstract void removeListener(S source, L listener);
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // guarded by itself. A multicaster is kept alive by its listener, i.e. by the event source, and by its
+    // subscribers. The subscribers usually refer to the source through their operator chain, so the registry
+    // has to hold the multicasters weakly as well, or it would keep the sources alive.
+    private static final Map<Object, Map<Kind<?, ?, ?>, WeakReference<Multicaster<?, ?, ?>>>> REGISTRY =
+            new WeakHashMap<Object, Map<Kind<?, ?, ?>, WeakReference<Multicaster<?, ?, ?>>>>();
+
+    /**
+     * The listener is added and removed on the Swing UI thread. The removal is not done with
+     * <code>unsubscribeOn</code>, which does not pass on the backpressure requests of the subscriber.
+     *
+     * @return an observable of the events that the listeners of the given kind receive from the source
+     */
+    static <S, T, L> Observable<T> observe(final S source, final Kind<S, T, L> kind) {
+        final Observable<T> events = listen(source, kind, null);
+        return Observable.create(new OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> subscriber) {
+                if (SwingSubscriptionRegistry.getInstalled() == null) {
+                    events.unsafeSubscribe(subscriber);
+                } else {
+                    // still on the subscribing thread, so the stack shows the code that subscribed
+                    listen(source, kind, SwingSubscriptionRegistry.subscribingStackTrace()).unsafeSubscribe(subscriber);
+                }
+            }
+        });
+    }
+
+    private static <S, T, L> Observable<T> listen(final S source, final Kind<S, T, L> kind,
+            final StackTraceElement[] subscribingStackTrace) {
+        return Observable.create(new OnSubscribe<T>() {
+            @Override
+            public void call(final Subscriber<? super T> subscriber) {
+                final EventProducer<T> producer = new EventProducer<T>(subscriber, OverflowStrategy.ERROR,
+                        OverflowStrategy.DEFAULT_CAPACITY);
+                subscriber.setProducer(producer);
+                final Multicaster<S, T, L> multicaster = acquire(source, kind, producer);
+                SwingSubscriptionRegistry registry = SwingSubscriptionRegistry.getInstalled();
+                if (registry != null) {
+                    subscriber.add(registry.register(source, kind, subscribingStackTrace, subscriber));
+                }
+                subscriber.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        if (SwingScheduler.isEventDispatchThread()) {
+                            release(multicaster, producer);
+                        } else {
+                            final Worker worker = SwingScheduler.getInstance().createWorker();
+                            worker.schedule(new Action0() {
+                                @Override
+                                public void call() {
+                                    release(multicaster, producer);
+                                    worker.unsubscribe();
+                                }
+                            });
+                        }
+                    }
+                }));
+            }
+        }).subscribeOn(SwingScheduler.getInstance());
+    }
+
+    /* package for unit test */static int sharedListenerCount(Object source) {
+        synchronized (REGISTRY) {
+            Map<Kind<?, ?, ?>, WeakReference<Multicaster<?, ?, ?>>> kinds = REGISTRY.get(source);
+            return kinds == null ? 0 : kinds.size();
+        }
+    }
+
+    private static <S, T, L> Multicaster<S, T, L> acquire(S source, Kind<S, T, L> kind, EventProducer<T> producer) {
+        synchronized (REGISTRY) {
+            Map<Kind<?, ?, ?>, WeakReference<Multicaster<?, ?, ?>>> kinds = REGISTRY.get(source);
+            if (kinds == null) {
+                kinds = new HashMap<Kind<?, ?, ?>, WeakReference<Multicaster<?, ?, ?>>>(4);
+                REGISTRY.put(source, kinds);
+            }
+            WeakReference<Multicaster<?, ?, ?>> reference = kinds.get(kind);
+            @SuppressWarnings("unchecked")
+            Multicaster<S, T, L> multicaster = reference == null ? null : (Multicaster<S, T, L>) reference.get();
+            if (multicaster == null) {
+                multicaster = new Multicaster<S, T, L>(source, kind, true);
+                kinds.put(kind, new WeakReference<Multicaster<?, ?, ?>>(multicaster));
+                kind.addListener(source, multicaster.listener);
+            } else if (multicaster.source.get() != source) {
+                // an equal but distinct source, the registered listener is not attached to this one
+                multicaster = new Multicaster<S, T, L>(source, kind, false);
+                kind.addListener(source, multicaster.listener);
+            }
+            multicaster.add(producer);
+            return multicaster;
+        }
+    }
+
+    private static <S, T, L> void release(Multicaster<S, T, L> multicaster, EventProducer<T> producer) {
+        synchronized (REGISTRY) {
+            S source = multicaster.source.get();
+            if (!multicaster.remove(producer) || source == null) {
+                return;
+            }
+            multicaster.kind.removeListener(source, multicaster.listener);
+            if (multicaster.registered) {
+                Map<Kind<?, ?, ?>, WeakReference<Multicaster<?, ?, ?>>> kinds = REGISTRY.get(source);
+                WeakReference<Multicaster<?, ?, ?>> reference = kinds == null ? null : kinds.get(multicaster.kind);
+                if (reference != null && reference.get() == multicaster) {
+                    kinds.remove(multicaster.kind);
+                    if (kinds.isEmpty()) {
+                        REGISTRY.remove(source);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The listener of one source and kind, and the producers of the subscribers it dispatches to.
+     */
+    private static final class Multicaster<S, T, L> implements Observer<T> {
+        private static final EventProducer<?>[] EMPTY = new EventProducer<?>[0];
+
+        final WeakReference<S> source;
+        final Kind<S, T, L> kind;
+        final boolean registered;
+        final L listener;
+        // copy-on-write, only modified while holding the registry lock
+        private volatile EventProducer<?>[] producers = EMPTY;
+
+        Multicaster(S source, Kind<S, T, L> kind, boolean registered) {
+            this.source = new WeakReference<S>(source);
+            this.kind = kind;
+            this.registered = registered;
+            this.listener = kind.createListener(this);
+        }
+
+        void add(EventProducer<T> producer) {
+            EventProducer<?>[] current = producers;
+            EventProducer<?>[] next = new EventProducer<?>[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = producer;
+            producers = next;
+        }
+
+        /**
+         * @return true if the last producer has been removed
+         */
+        boolean remove(EventProducer<T> producer) {
+            EventProducer<?>[] current = producers;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == producer) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            if (current.length == 1) {
+                producers = EMPTY;
+                return true;
+            }
+            EventProducer<?>[] next = new EventProducer<?>[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            producers = next;
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(T event) {
+            for (EventProducer<?> producer : producers) {
+                ((EventProducer<T>) producer).onNext(event);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            // listeners never fail
+        }
+
+        @Override
+        public void onCompleted() {
+            // listeners never complete
+        }
+    }
+}
@@ -16,11 +16,8 @@
 package rx.swing.sources;
 
 import rx.Observable;
-import rx.Observable.OnSubscribe;
-import rx.Subscriber;
-import rx.functions.Action0;
-import rx.schedulers.SwingScheduler;
-import rx.subscriptions.Subscriptions;
+import rx.Observer;
+import rx.swing.sources.SharedListeners.Kind;
 
 import java.awt.*;
 import java.awt.event.WindowEvent;
@@ -33,56 +30,58 @@ public enum WindowEventSource { ; // no instances
      * @see rx.observables.SwingObservable#fromWindowEventsOf(Window)
      */
     public static Observable<WindowEvent> fromWindowEventsOf(final Window window) {
-        return Observable.create(new OnSubscribe<WindowEvent>() {
-            @Override
-            public void call(final Subscriber<? super WindowEvent> subscriber) {
-                final WindowListener windowListener = new WindowListener() {
-                    @Override
-                    public void windowOpened(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
+        return SharedListeners.observe(window, WINDOW);
+    }
 
-                    @Override
-                    public void windowClosing(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
+    private static final Kind<Window, WindowEvent, WindowListener> WINDOW = new Kind<Window, WindowEvent, WindowListener>("WindowListener") {
+        @Override
+        WindowListener createListener(final Observer<? super WindowEvent> observer) {
+            return new WindowListener() {
+                @Override
+                public void windowOpened(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
 
-                    @Override
-                    public void windowClosed(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
+                @Override
+                public void windowClosing(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
 
-                    @Override
-                    public void windowIconified(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
+                @Override
+                public void windowClosed(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
 
-                    @Override
-                    public void windowDeiconified(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
+                @Override
+                public void windowIconified(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
 
-                    @Override
-                    public void windowActivated(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
+                @Override
+                public void windowDeiconified(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
 
-                    @Override
-                    public void windowDeactivated(WindowEvent windowEvent) {
-                        subscriber.onNext(windowEvent);
-                    }
-                };
+                @Override
+                public void windowActivated(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
 
-                window.addWindowListener(windowListener);
+                @Override
+                public void windowDeactivated(WindowEvent windowEvent) {
+                    observer.onNext(windowEvent);
+                }
+            };
+        }
 
-                subscriber.add(Subscriptions.create(new Action0() {
-                    @Override
-                    public void call() {
-                        window.removeWindowListener(windowListener);
-                    }
-                }));
-            }
-        }).subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+        @Override
+        void addListener(Window window, WindowListener listener) {
+            window.addWindowListener(listener);
+        }
+
+        @Override
+        void removeListener(Window window, WindowListener listener) {
+            window.removeWindowListener(listener);
+        }
+    };
 }
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.observables;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.functions.Func1;
+
+/**
+ * Events per second through {@link SwingObservable} pipelines, fed by synthetic events dispatched to a
+ * component on the Swing UI thread.
+ * <p>
+ * gradlew benchmarks "-Pjmh=-f 1 -wi 5 -i 5 .*SwingObservablePerf.*"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class SwingObservablePerf {
+
+    private static final int BATCH = 1000;
+
+    public enum Pipeline {
+        MOUSE_MOTION {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromMouseMotionEvents(component).map(new Func1<MouseEvent, Integer>() {
+                    @Override
+                    public Integer call(MouseEvent event) {
+                        return event.getX();
+                    }
+                });
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return new MouseEvent(component, MouseEvent.MOUSE_MOVED, 0L, 0, index & 0xff, index >> 8 & 0xff, 0, false);
+            }
+        },
+        RELATIVE_MOUSE_MOTION {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromRelativeMouseMotion(component);
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return MOUSE_MOTION.event(component, index);
+            }
+        },
+        RELATIVE_MOUSE_MOTION_REUSED {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromRelativeMouseMotion(component, true);
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return MOUSE_MOTION.event(component, index);
+            }
+        },
+        MOUSE_WHEEL {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromMouseWheelEvents(component);
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return new MouseWheelEvent(component, MouseEvent.MOUSE_WHEEL, 0L, 0, 0, 0, 0, false,
+                        MouseWheelEvent.WHEEL_UNIT_SCROLL, 1, (index & 1) == 0 ? 1 : -1);
+            }
+        },
+        KEY_FILTERED {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromKeyEvents(component, Collections.singleton(KeyEvent.VK_A));
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return keyEvent(component, index);
+            }
+        },
+        PRESSED_KEYS {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromPressedKeys(component);
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return keyEvent(component, index);
+            }
+        },
+        PRESSED_KEY_CODES {
+            @Override
+            Observable<?> create(Component component) {
+                return SwingObservable.fromPressedKeyCodes(component);
+            }
+
+            @Override
+            AWTEvent event(Component component, int index) {
+                return keyEvent(component, index);
+            }
+        };
+
+        abstract Observable<?> create(Component component);
+
+        abstract AWTEvent event(Component component, int index);
+
+        private static KeyEvent keyEvent(Component component, int index) {
+            // presses and releases of A and B, so that there is always something pressed and something to filter
+            int id = (index & 1) == 0 ? KeyEvent.KEY_PRESSED : KeyEvent.KEY_RELEASED;
+            int keyCode = (index & 2) == 0 ? KeyEvent.VK_A : KeyEvent.VK_B;
+            return new KeyEvent(component, id, 0L, 0, keyCode, KeyEvent.CHAR_UNDEFINED);
+        }
+    }
+
+    @Param
+    public Pipeline pipeline;
+
+    private EventTarget component;
+    private AWTEvent[] events;
+    private Subscription subscription;
+    private long received;
+
+    private final Runnable dispatchBatch = new Runnable() {
+        @Override
+        public void run() {
+            long before = received;
+            for (AWTEvent event : events) {
+                component.dispatch(event);
+            }
+            if (received == before) {
+                throw new IllegalStateException("No event made it through the " + pipeline + " pipeline");
+            }
+        }
+    };
+
+    /**
+     * Dispatches key events without going through the keyboard focus manager, which would retarget them to
+     * the focus owner. There is none in a headless run.
+     */
+    private static final class EventTarget extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        void dispatch(AWTEvent event) {
+            if (event instanceof KeyEvent) {
+                processEvent(event);
+            } else {
+                dispatchEvent(event);
+            }
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                component = new EventTarget();
+                events = new AWTEvent[BATCH];
+                for (int i = 0; i < BATCH; i++) {
+                    events[i] = pipeline.event(component, i);
+                }
+                subscription = pipeline.create(component).subscribe(new Action1<Object>() {
+                    @Override
+                    public void call(Object value) {
+                        received++;
+                    }
+                });
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                subscription.unsubscribe();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long dispatchEvents() throws Exception {
+        EventQueue.invokeAndWait(dispatchBatch);
+        return received;
+    }
+}
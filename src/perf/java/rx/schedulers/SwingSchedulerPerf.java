@@ -0,0 +1,180 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import java.awt.EventQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rx.Scheduler;
+import rx.Scheduler.Worker;
+import rx.functions.Action0;
+
+/**
+ * Throughput and latency of the {@link SwingScheduler} variants, for callers on and off the Swing UI thread.
+ * <p>
+ * gradlew benchmarks "-Pjmh=-f 1 -wi 5 -i 5 .*SwingSchedulerPerf.*"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class SwingSchedulerPerf {
+
+    private static final int BATCH = 1000;
+
+    public enum Variant {
+        DEFAULT {
+            @Override
+            Scheduler create() {
+                return new SwingScheduler();
+            }
+        },
+        COALESCING {
+            @Override
+            Scheduler create() {
+                return SwingScheduler.coalescing(8, TimeUnit.MILLISECONDS);
+            }
+        },
+        PRIORITY_INPUT {
+            @Override
+            Scheduler create() {
+                return SwingScheduler.getInstance(SwingScheduler.Priority.INPUT);
+            }
+        },
+        TRAMPOLINED {
+            @Override
+            Scheduler create() {
+                return new SwingScheduler().trampolined();
+            }
+        };
+
+        abstract Scheduler create();
+    }
+
+    @Param
+    public Variant variant;
+
+    private Worker worker;
+    private int executed;
+
+    private final Action0 increment = new Action0() {
+        @Override
+        public void call() {
+            executed++;
+        }
+    };
+
+    private final Runnable scheduleBatch = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH; i++) {
+                worker.schedule(increment);
+            }
+        }
+    };
+
+    @Setup
+    public void setup() {
+        worker = variant.create().createWorker();
+    }
+
+    @TearDown
+    public void tearDown() {
+        worker.unsubscribe();
+    }
+
+    /**
+     * A background thread scheduling a burst of actions and waiting for the last one to run.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void scheduleFromOffEdt() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < BATCH - 1; i++) {
+            worker.schedule(increment);
+        }
+        worker.schedule(countDown(latch));
+        latch.await();
+    }
+
+    /**
+     * The time from scheduling a single action on a background thread until it has run on the Swing UI thread.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void roundTripFromOffEdt() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        worker.schedule(countDown(latch));
+        latch.await();
+    }
+
+    /**
+     * Actions scheduled from the Swing UI thread, which run immediately.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int scheduleOnEdt() throws Exception {
+        EventQueue.invokeAndWait(scheduleBatch);
+        return executed;
+    }
+
+    /**
+     * The cost of putting a delayed action into the timer wheel and taking it out again.
+     */
+    @Benchmark
+    public void scheduleAndCancelWithDelay() {
+        worker.schedule(increment, 1, TimeUnit.SECONDS).unsubscribe();
+    }
+
+    /**
+     * The time until a delayed action has run, including the rounding to the timer wheel resolution.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void roundTripWithDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        worker.schedule(countDown(latch), 1, TimeUnit.MILLISECONDS);
+        latch.await();
+    }
+
+    private static Action0 countDown(final CountDownLatch latch) {
+        return new Action0() {
+            @Override
+            public void call() {
+                latch.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import java.awt.EventQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.DefaultListSelectionModel;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.text.PlainDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.observers.Subscribers;
+
+/**
+ * The cost of subscribing to and unsubscribing from each event source on the Swing UI thread.
+ * <p>
+ * gradlew benchmarks "-Pjmh=-f 1 -wi 5 -i 5 .*EventSourcesPerf.*"
+ * <p>
+ * {@link Source#WINDOW} needs a display and is not run by default. To include it, run under Xvfb with
+ * "-p source=WINDOW -jvmArgsAppend -Djava.awt.headless=false".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class EventSourcesPerf {
+
+    private static final int BATCH = 100;
+
+    public enum Source {
+        BUTTON_ACTION {
+            @Override
+            Observable<?> create() {
+                return AbstractButtonSource.fromActionOf(new JButton());
+            }
+        },
+        CHANGE {
+            @Override
+            Observable<?> create() {
+                return ChangeEventSource.fromChangeEventsOf(new JSlider());
+            }
+        },
+        COMPONENT {
+            @Override
+            Observable<?> create() {
+                return ComponentEventSource.fromComponentEventsOf(new JPanel());
+            }
+        },
+        RESIZING {
+            @Override
+            Observable<?> create() {
+                return ComponentEventSource.fromResizing(new JPanel());
+            }
+        },
+        CONTAINER {
+            @Override
+            Observable<?> create() {
+                return ContainerEventSource.fromContainerEventsOf(new JPanel());
+            }
+        },
+        DOCUMENT {
+            @Override
+            Observable<?> create() {
+                return DocumentEventSource.fromDocumentEventsOf(new PlainDocument());
+            }
+        },
+        FOCUS {
+            @Override
+            Observable<?> create() {
+                return FocusEventSource.fromFocusEventsOf(new JPanel());
+            }
+        },
+        HIERARCHY {
+            @Override
+            Observable<?> create() {
+                return HierarchyEventSource.fromHierarchyEventsOf(new JPanel());
+            }
+        },
+        HIERARCHY_BOUNDS {
+            @Override
+            Observable<?> create() {
+                return HierarchyEventSource.fromHierarchyBoundsEventsOf(new JPanel());
+            }
+        },
+        ITEM {
+            @Override
+            Observable<?> create() {
+                return ItemEventSource.fromItemEventsOf(new JCheckBox());
+            }
+        },
+        KEY {
+            @Override
+            Observable<?> create() {
+                return KeyEventSource.fromKeyEventsOf(new JPanel());
+            }
+        },
+        PRESSED_KEYS {
+            @Override
+            Observable<?> create() {
+                return KeyEventSource.currentlyPressedKeysOf(new JPanel());
+            }
+        },
+        LIST_SELECTION {
+            @Override
+            Observable<?> create() {
+                return ListSelectionEventSource.fromListSelectionEventsOf(new DefaultListSelectionModel());
+            }
+        },
+        MOUSE {
+            @Override
+            Observable<?> create() {
+                return MouseEventSource.fromMouseEventsOf(new JPanel());
+            }
+        },
+        MOUSE_MOTION {
+            @Override
+            Observable<?> create() {
+                return MouseEventSource.fromMouseMotionEventsOf(new JPanel());
+            }
+        },
+        MOUSE_WHEEL {
+            @Override
+            Observable<?> create() {
+                return MouseEventSource.fromMouseWheelEvents(new JPanel());
+            }
+        },
+        RELATIVE_MOUSE_MOTION {
+            @Override
+            Observable<?> create() {
+                return MouseEventSource.fromRelativeMouseMotion(new JPanel());
+            }
+        },
+        PROPERTY_CHANGE {
+            @Override
+            Observable<?> create() {
+                return PropertyChangeEventSource.fromPropertyChangeEventsOf(new JPanel());
+            }
+        },
+        WINDOW {
+            @Override
+            Observable<?> create() {
+                return WindowEventSource.fromWindowEventsOf(new JFrame());
+            }
+        };
+
+        abstract Observable<?> create();
+    }
+
+    @Param({ "BUTTON_ACTION", "CHANGE", "COMPONENT", "RESIZING", "CONTAINER", "DOCUMENT", "FOCUS", "HIERARCHY",
+            "HIERARCHY_BOUNDS", "ITEM", "KEY", "PRESSED_KEYS", "LIST_SELECTION", "MOUSE", "MOUSE_MOTION",
+            "MOUSE_WHEEL", "RELATIVE_MOUSE_MOTION", "PROPERTY_CHANGE" })
+    public Source source;
+
+    private Observable<?> observable;
+
+    private final Runnable subscribeAndUnsubscribeBatch = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH; i++) {
+                Subscription subscription = observable.subscribe(Subscribers.empty());
+                subscription.unsubscribe();
+            }
+        }
+    };
+
+    @Setup
+    public void setup() throws Exception {
+        // Swing components should be created on the Swing UI thread
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                observable = source.create();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void subscribeAndUnsubscribe() throws Exception {
+        EventQueue.invokeAndWait(subscribeAndUnsubscribeBatch);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import rx.Scheduler.Worker;
+import rx.functions.Action0;
+
+public class AnimationFrameSchedulerTest {
+
+    @Test
+    public void testActionsQueuedTogetherRunInOneFrame() throws Exception {
+        final AnimationFrameScheduler scheduler = AnimationFrameScheduler.create(20, 10, TimeUnit.MILLISECONDS);
+        final Worker inner = scheduler.createWorker();
+        final List<Integer> executed = new ArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            inner.schedule(new Action0() {
+                @Override
+                public void call() {
+                    assertTrue(SwingUtilities.isEventDispatchThread());
+                    executed.add(index);
+                    latch.countDown();
+                }
+            });
+        }
+
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for the frame");
+        }
+        waitForEmptyEventQueue();
+        assertEquals(Arrays.asList(0, 1, 2), executed);
+        assertEquals(1, scheduler.getFramesRun());
+        assertEquals(0, scheduler.getActionsDeferred());
+        assertEquals(0, scheduler.getBudgetOverruns());
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testRemainingActionsAreCarriedOverOnceTheBudgetIsUsedUp() throws Exception {
+        final AnimationFrameScheduler scheduler = AnimationFrameScheduler.create(20, 5, TimeUnit.MILLISECONDS);
+        final Worker inner = scheduler.createWorker();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final Action0 slowAction = new Action0() {
+            @Override
+            public void call() {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }
+        };
+
+        inner.schedule(slowAction);
+        inner.schedule(slowAction);
+        inner.schedule(slowAction);
+
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for the frames");
+        }
+        waitForEmptyEventQueue();
+        assertEquals(3, scheduler.getFramesRun());
+        assertEquals(3, scheduler.getBudgetOverruns());
+        // two actions were left after the first frame, one after the second
+        assertEquals(3, scheduler.getActionsDeferred());
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testCancelledActionsDoNotRun() throws Exception {
+        final AnimationFrameScheduler scheduler = AnimationFrameScheduler.create(20, 10, TimeUnit.MILLISECONDS);
+        final Worker inner = scheduler.createWorker();
+        final Action0 cancelled = mock(Action0.class);
+        final Action0 delayedCancelled = mock(Action0.class);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        inner.schedule(cancelled).unsubscribe();
+        inner.schedule(delayedCancelled, 10, TimeUnit.MILLISECONDS).unsubscribe();
+        inner.schedule(new Action0() {
+            @Override
+            public void call() {
+                latch.countDown();
+            }
+        }, 30, TimeUnit.MILLISECONDS);
+
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for the frame");
+        }
+        verify(cancelled, never()).call();
+        verify(delayedCancelled, never()).call();
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testCancelledActionsAreNotCarriedOver() throws Exception {
+        final AnimationFrameScheduler scheduler = AnimationFrameScheduler.create(20, 5, TimeUnit.MILLISECONDS);
+        final Worker inner = scheduler.createWorker();
+        final Worker cancelledWorker = scheduler.createWorker();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        inner.schedule(new Action0() {
+            @Override
+            public void call() {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }
+        });
+        inner.schedule(mock(Action0.class)).unsubscribe();
+        cancelledWorker.schedule(mock(Action0.class));
+        cancelledWorker.schedule(mock(Action0.class));
+        cancelledWorker.unsubscribe();
+
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for the frame");
+        }
+        Thread.sleep(50);
+        waitForEmptyEventQueue();
+        assertEquals(1, scheduler.getFramesRun());
+        assertEquals(1, scheduler.getBudgetOverruns());
+        assertEquals(0, scheduler.getActionsDeferred());
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testNoFrameRunsWhenAllActionsWereCancelled() throws Exception {
+        final AnimationFrameScheduler scheduler = AnimationFrameScheduler.create(20, 10, TimeUnit.MILLISECONDS);
+        final Worker inner = scheduler.createWorker();
+
+        inner.schedule(mock(Action0.class)).unsubscribe();
+
+        Thread.sleep(50);
+        waitForEmptyEventQueue();
+        assertEquals(0, scheduler.getFramesRun());
+        inner.unsubscribe();
+    }
+
+    private static void waitForEmptyEventQueue() throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // nothing to do, we're just waiting here for the event queue to be emptied
+            }
+        });
+    }
+}
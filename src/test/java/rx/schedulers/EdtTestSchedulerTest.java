@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+import org.junit.After;
+import org.junit.Test;
+
+import rx.Scheduler.Worker;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.observables.SwingObservable;
+import rx.observers.TestSubscriber;
+import rx.swing.sources.DocumentEdit;
+
+public class EdtTestSchedulerTest {
+
+    private final List<String> log = new ArrayList<String>();
+
+    @After
+    public void uninstall() {
+        EdtTestScheduler.uninstall();
+    }
+
+    @Test
+    public void testRunsImmediateActionsInlineOnlyOnTheEmulatedSwingThread() throws Exception {
+        final EdtTestScheduler scheduler = new EdtTestScheduler();
+        final Worker worker = scheduler.createWorker();
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                log.add("outer");
+                worker.schedule(log("nested"));
+                worker.schedule(log("deferred"), 0, TimeUnit.MILLISECONDS);
+                log.add("outer done");
+            }
+        });
+        assertEquals(Arrays.<String> asList(), log);
+
+        scheduler.triggerActions();
+
+        assertEquals(Arrays.asList("outer", "nested", "outer done", "deferred"), log);
+        assertFalse(SwingScheduler.isEventDispatchThread());
+    }
+
+    @Test
+    public void testRunsDelayedActionsAtTheirVirtualTime() {
+        EdtTestScheduler scheduler = new EdtTestScheduler();
+        Worker worker = scheduler.createWorker();
+        worker.schedule(log("b"), 200, TimeUnit.MILLISECONDS);
+        worker.schedule(log("a"), 100, TimeUnit.MILLISECONDS);
+        Subscription cancelled = worker.schedule(log("cancelled"), 150, TimeUnit.MILLISECONDS);
+        Subscription periodic = worker.schedulePeriodically(log("tick"), 50, 100, TimeUnit.MILLISECONDS);
+        cancelled.unsubscribe();
+
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList("tick"), log);
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList("tick", "a"), log);
+        assertEquals(100, scheduler.now());
+
+        scheduler.advanceTimeTo(250, TimeUnit.MILLISECONDS);
+        periodic.unsubscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("tick", "a", "tick", "b", "tick"), log);
+    }
+
+    @Test
+    public void testInstalledSchedulerRunsTheSourcesOnVirtualTime() throws Exception {
+        EdtTestScheduler scheduler = EdtTestScheduler.install();
+        assertTrue(SwingScheduler.isEventDispatchThread());
+        Document document = new PlainDocument();
+        TestSubscriber<DocumentEdit> subscriber = TestSubscriber.create();
+
+        SwingObservable.fromDocumentEdits(document)
+                .debounce(100, TimeUnit.MILLISECONDS, SwingScheduler.getInstance())
+                .subscribe(subscriber);
+        // subscribed on the emulated Swing UI thread right away
+        document.insertString(0, "first", null);
+        document.insertString(5, " second", null);
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        subscriber.assertNoValues();
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        subscriber.assertValueCount(1);
+        assertEquals(" second", subscriber.getOnNextEvents().get(0).getInsertedText().toString());
+
+        subscriber.unsubscribe();
+        EdtTestScheduler.uninstall();
+        assertFalse(SwingScheduler.isEventDispatchThread());
+    }
+
+    private Action0 log(final String message) {
+        return new Action0() {
+            @Override
+            public void call() {
+                log.add(message);
+            }
+        };
+    }
+}
@@ -15,25 +15,33 @@
  */
 package rx.schedulers;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.awt.EventQueue;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import javax.swing.SwingUtilities;
 
+import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.InOrder;
 
 import rx.Scheduler.Worker;
+import rx.Subscription;
 import rx.functions.Action0;
 
 /**
@@ -93,6 +101,142 @@ public final class SwingSchedulerTest {
         verify(innerAction, times(4)).call();
     }
 
+    @Test
+    public void testPeriodicSchedulingDoesNotAllocatePerTick() throws Exception {
+        final com.sun.management.ThreadMXBean threads = allocationCountingThreadMXBean();
+        final int ticks = 40;
+
+        // what the event queue itself allocates on the Swing UI thread to dispatch one event
+        final long[] plainEvents = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            final int tick = i;
+            EventQueue.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    plainEvents[tick] = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+                }
+            });
+            Thread.sleep(2);
+        }
+        waitForEmptyEventQueue();
+
+        final Worker inner = new SwingScheduler().createWorker();
+        final long[] periodicTicks = new long[ticks];
+        final CountDownLatch latch = new CountDownLatch(ticks);
+        inner.schedulePeriodically(new Action0() {
+            int tick;
+
+            @Override
+            public void call() {
+                if (tick < ticks) {
+                    periodicTicks[tick++] = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+                    latch.countDown();
+                }
+            }
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for tasks to execute");
+        }
+        inner.unsubscribe();
+
+        long bytesPerPlainEvent = medianAllocationPerStep(plainEvents);
+        long bytesPerTick = medianAllocationPerStep(periodicTicks);
+        assertTrue("allocated " + bytesPerTick + " bytes per tick, the event queue alone needs " + bytesPerPlainEvent,
+                bytesPerTick <= bytesPerPlainEvent);
+    }
+
+    @Test
+    public void testPeriodicSchedulingDoesNotDrift() throws Exception {
+        final Worker inner = new SwingScheduler().createWorker();
+        final int ticks = 11;
+        final CountDownLatch latch = new CountDownLatch(ticks);
+        final long[] tickStarts = new long[ticks];
+
+        inner.schedulePeriodically(new Action0() {
+            int tick;
+
+            @Override
+            public void call() {
+                if (tick < ticks) {
+                    tickStarts[tick++] = System.nanoTime();
+                }
+                try {
+                    // would make every period at least 30ms if it was measured from the end of the previous run
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            }
+        }, 20, 20, TimeUnit.MILLISECONDS);
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for tasks to execute");
+        }
+        inner.unsubscribe();
+
+        // the median is not thrown off by a few ticks that GC or a busy machine delayed
+        long[] intervals = new long[ticks - 1];
+        for (int i = 0; i < intervals.length; i++) {
+            intervals[i] = TimeUnit.NANOSECONDS.toMillis(tickStarts[i + 1] - tickStarts[i]);
+        }
+        Arrays.sort(intervals);
+        long median = intervals[intervals.length / 2];
+        assertTrue("median period of " + median + "ms in " + Arrays.toString(intervals), median < 30);
+    }
+
+    @Test
+    public void testImmediateSchedulingOnEventDispatchThreadDoesNotAllocate() throws Exception {
+        final com.sun.management.ThreadMXBean threads = allocationCountingThreadMXBean();
+        final Worker inner = new SwingScheduler().createWorker();
+        final int calls = 10000;
+        final int[] executed = new int[1];
+        final Action0 action = new Action0() {
+            @Override
+            public void call() {
+                executed[0]++;
+            }
+        };
+        final long[] allocated = new long[1];
+
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                long threadId = Thread.currentThread().getId();
+                for (int i = 0; i < calls; i++) {
+                    // warm up
+                    inner.schedule(action);
+                }
+                long before = threads.getThreadAllocatedBytes(threadId);
+                for (int i = 0; i < calls; i++) {
+                    Subscription s = inner.schedule(action);
+                    assertTrue(s.isUnsubscribed());
+                }
+                allocated[0] = threads.getThreadAllocatedBytes(threadId) - before;
+            }
+        });
+
+        assertEquals(2 * calls, executed[0]);
+        // anything left is the bookkeeping of the measurement itself, a single subscription is 16 bytes or more
+        assertTrue("allocated " + allocated[0] + " bytes for " + calls + " calls", allocated[0] < calls);
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testImmediateSchedulingOnEventDispatchThreadSkipsUnsubscribedWorker() throws Exception {
+        final Worker inner = new SwingScheduler().createWorker();
+        final Action0 action = mock(Action0.class);
+        inner.unsubscribe();
+
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                inner.schedule(action);
+            }
+        });
+
+        verify(action, never()).call();
+    }
+
     @Test
     public void testNestedActions() throws Exception {
         final SwingScheduler scheduler = new SwingScheduler();
@@ -147,6 +291,298 @@ public final class SwingSchedulerTest {
         inOrder.verify(thirdStepEnd, times(1)).call();
     }
 
+    @Test
+    public void testTrampolinedNestedActionsRunAfterTheOuterAction() throws Exception {
+        final Worker inner = new SwingScheduler().trampolined().createWorker();
+        final List<String> executed = new ArrayList<String>();
+
+        final Action0 firstAction = record(executed, "first");
+        final Action0 secondAction = new Action0() {
+            @Override
+            public void call() {
+                executed.add("second start");
+                inner.schedule(firstAction);
+                executed.add("second end");
+            }
+        };
+        final Action0 thirdAction = new Action0() {
+            @Override
+            public void call() {
+                executed.add("third start");
+                inner.schedule(secondAction);
+                inner.schedule(firstAction).unsubscribe();
+                executed.add("third end");
+            }
+        };
+
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                inner.schedule(thirdAction);
+                // everything ran within the same event
+                executed.add("returned");
+            }
+        });
+
+        assertEquals(Arrays.asList("third start", "third end", "second start", "second end", "first", "returned"), executed);
+    }
+
+    @Test
+    public void testTrampolinedDeepNestingDoesNotGrowTheStack() throws Exception {
+        final Worker inner = new SwingScheduler().trampolined().createWorker();
+        final int depth = 100000;
+        final int[] executed = new int[1];
+
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                inner.schedule(new Action0() {
+                    @Override
+                    public void call() {
+                        if (++executed[0] < depth) {
+                            inner.schedule(this);
+                        }
+                    }
+                });
+            }
+        });
+
+        assertEquals(depth, executed[0]);
+    }
+
+    @Test
+    public void testTrampolinedActionsAfterAFailureRunInALaterEvent() throws Exception {
+        final Worker inner = new SwingScheduler().trampolined().createWorker();
+        final List<String> executed = new ArrayList<String>();
+        final RuntimeException failure = new RuntimeException("failed");
+        final RuntimeException[] caught = new RuntimeException[1];
+
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    inner.schedule(new Action0() {
+                        @Override
+                        public void call() {
+                            inner.schedule(new Action0() {
+                                @Override
+                                public void call() {
+                                    throw failure;
+                                }
+                            });
+                            inner.schedule(record(executed, "after failure"));
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    caught[0] = e;
+                }
+                executed.add("returned");
+            }
+        });
+        waitForEmptyEventQueue();
+
+        assertEquals(failure, caught[0]);
+        assertEquals(Arrays.asList("returned", "after failure"), executed);
+    }
+
+    @Test
+    public void testDelayedActionRunsOnEventDispatchThreadAfterDelay() throws Exception {
+        final SwingScheduler scheduler = new SwingScheduler();
+        final Worker inner = scheduler.createWorker();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        final long[] elapsed = new long[1];
+
+        inner.schedule(new Action0() {
+            @Override
+            public void call() {
+                assertTrue(SwingUtilities.isEventDispatchThread());
+                elapsed[0] = System.nanoTime() - start;
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for the delayed action");
+        }
+        assertTrue(elapsed[0] >= TimeUnit.MILLISECONDS.toNanos(50));
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testCancelledDelayedActionsDoNotRun() throws Exception {
+        final SwingScheduler scheduler = new SwingScheduler();
+        final Worker inner = scheduler.createWorker();
+        final Action0 cancelledAction = mock(Action0.class);
+        final Action0 unsubscribedAction = mock(Action0.class);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        inner.schedule(cancelledAction, 20, TimeUnit.MILLISECONDS).unsubscribe();
+        scheduler.createWorker().schedule(new Action0() {
+            @Override
+            public void call() {
+                latch.countDown();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        inner.schedule(unsubscribedAction, 20, TimeUnit.MILLISECONDS);
+        inner.unsubscribe();
+
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for the delayed action");
+        }
+        waitForEmptyEventQueue();
+        verify(cancelledAction, times(0)).call();
+        verify(unsubscribedAction, times(0)).call();
+    }
+
+    @Test
+    public void testCoalescingSchedulerDrainsActionsScheduledBeforeTheDrainRuns() throws Exception {
+        final Worker inner = SwingScheduler.coalescing(0, TimeUnit.MILLISECONDS).createWorker();
+        final List<String> executed = new ArrayList<String>();
+
+        CountDownLatch edtBlocked = blockEventDispatchThread();
+        inner.schedule(record(executed, "a1"));
+        EventQueue.invokeLater(recordRunnable(executed, "marker"));
+        inner.schedule(record(executed, "a2"));
+        inner.schedule(record(executed, "a3"));
+        edtBlocked.countDown();
+        waitForEmptyEventQueue();
+
+        assertEquals(Arrays.asList("a1", "a2", "a3", "marker"), executed);
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testCoalescingSchedulerYieldsWhenDrainBudgetIsUsedUp() throws Exception {
+        final Worker inner = SwingScheduler.coalescing(1, TimeUnit.MILLISECONDS).createWorker();
+        final List<String> executed = new ArrayList<String>();
+
+        CountDownLatch edtBlocked = blockEventDispatchThread();
+        inner.schedule(sleepAndRecord(executed, "a1"));
+        inner.schedule(sleepAndRecord(executed, "a2"));
+        EventQueue.invokeLater(recordRunnable(executed, "marker"));
+        edtBlocked.countDown();
+        waitForEmptyEventQueue();
+        waitForEmptyEventQueue();
+
+        assertEquals(Arrays.asList("a1", "marker", "a2"), executed);
+        inner.unsubscribe();
+    }
+
+    @Test
+    public void testCoalescingSchedulerSkipsActionsOfUnsubscribedWorker() throws Exception {
+        final Worker inner = SwingScheduler.coalescing(0, TimeUnit.MILLISECONDS).createWorker();
+        final Action0 action = mock(Action0.class);
+
+        CountDownLatch edtBlocked = blockEventDispatchThread();
+        inner.schedule(action);
+        inner.unsubscribe();
+        edtBlocked.countDown();
+        waitForEmptyEventQueue();
+
+        verify(action, times(0)).call();
+    }
+
+    @Test
+    public void testHigherPriorityLanesDrainFirst() throws Exception {
+        final List<String> executed = new ArrayList<String>();
+
+        CountDownLatch edtBlocked = blockEventDispatchThread();
+        SwingScheduler.getInstance(SwingScheduler.Priority.BACKGROUND).createWorker().schedule(record(executed, "background1"));
+        SwingScheduler.getInstance(SwingScheduler.Priority.RENDER).createWorker().schedule(record(executed, "render"));
+        SwingScheduler.getInstance(SwingScheduler.Priority.BACKGROUND).createWorker().schedule(record(executed, "background2"));
+        SwingScheduler.getInstance(SwingScheduler.Priority.INPUT).createWorker().schedule(record(executed, "input"));
+        edtBlocked.countDown();
+        waitForEmptyEventQueue();
+
+        assertEquals(Arrays.asList("input", "render", "background1", "background2"), executed);
+    }
+
+    @Test
+    public void testLowerPriorityLanesDoNotStarve() throws Exception {
+        final List<String> executed = new ArrayList<String>();
+        final Worker input = SwingScheduler.getInstance(SwingScheduler.Priority.INPUT).createWorker();
+
+        CountDownLatch edtBlocked = blockEventDispatchThread();
+        SwingScheduler.getInstance(SwingScheduler.Priority.BACKGROUND).createWorker().schedule(record(executed, "background"));
+        for (int i = 0; i < 40; i++) {
+            input.schedule(record(executed, "input"));
+        }
+        edtBlocked.countDown();
+        waitForEmptyEventQueue();
+        waitForEmptyEventQueue();
+
+        assertEquals(41, executed.size());
+        assertEquals(32, executed.indexOf("background"));
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCountingThreadMXBean() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        return threads;
+    }
+
+    /**
+     * @return the median of the differences between consecutive samples of the second half, after warm up
+     */
+    private static long medianAllocationPerStep(long[] samples) {
+        int from = samples.length / 2;
+        long[] steps = new long[samples.length - from - 1];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = samples[from + i + 1] - samples[from + i];
+        }
+        Arrays.sort(steps);
+        return steps[steps.length / 2];
+    }
+
+    private static CountDownLatch blockEventDispatchThread() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        EventQueue.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        return latch;
+    }
+
+    private static Action0 record(final List<String> executed, final String name) {
+        return new Action0() {
+            @Override
+            public void call() {
+                executed.add(name);
+            }
+        };
+    }
+
+    private static Action0 sleepAndRecord(final List<String> executed, final String name) {
+        return new Action0() {
+            @Override
+            public void call() {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executed.add(name);
+            }
+        };
+    }
+
+    private static Runnable recordRunnable(final List<String> executed, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+            }
+        };
+    }
+
     private static void waitForEmptyEventQueue() throws Exception {
         EventQueue.invokeAndWait(new Runnable() {
             @Override
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SwingTimerWheelTest {
+
+    private final List<Runnable> batches = new ArrayList<Runnable>();
+
+    private final Executor recordingExecutor = new Executor() {
+        @Override
+        public void execute(Runnable batch) {
+            synchronized (batches) {
+                batches.add(batch);
+            }
+            batch.run();
+        }
+    };
+
+    @Test
+    public void testTimeoutNeverFiresEarly() throws Exception {
+        final SwingTimerWheel wheel = new SwingTimerWheel(recordingExecutor, TimeUnit.MILLISECONDS.toNanos(10), 8);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long[] firedAfter = new long[1];
+        final long start = System.nanoTime();
+
+        // longer than one revolution of the wheel, so the timeout has to wait for remaining rounds
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                firedAfter[0] = System.nanoTime() - start;
+                latch.countDown();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(125));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue("fired after " + firedAfter[0] + "ns", firedAfter[0] >= TimeUnit.MILLISECONDS.toNanos(125));
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    public void testDelayBelowTickResolutionIsRoundedUp() throws Exception {
+        final SwingTimerWheel wheel = new SwingTimerWheel(recordingExecutor, TimeUnit.MILLISECONDS.toNanos(20), 8);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 1);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotFire() throws Exception {
+        final SwingTimerWheel wheel = new SwingTimerWheel(recordingExecutor);
+        final AtomicInteger fired = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+
+        SwingTimerWheel.Timeout cancelled = wheel.schedule(task, TimeUnit.MILLISECONDS.toNanos(20));
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(2, wheel.pending());
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(1, wheel.pending());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    public void testTimeoutsOfTheSameTickAreHandedOverAsOneBatch() throws Exception {
+        final SwingTimerWheel wheel = new SwingTimerWheel(recordingExecutor, TimeUnit.MILLISECONDS.toNanos(50), 8);
+        final CountDownLatch latch = new CountDownLatch(3);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+
+        synchronized (wheel) {
+            // hold the wheel so that all three deadlines fall into the same tick
+            wheel.schedule(task, TimeUnit.MILLISECONDS.toNanos(30));
+            wheel.schedule(task, TimeUnit.MILLISECONDS.toNanos(30));
+            wheel.schedule(task, TimeUnit.MILLISECONDS.toNanos(30));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        synchronized (batches) {
+            assertEquals(1, batches.size());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.EventQueue;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import rx.Scheduler.Worker;
+import rx.functions.Action0;
+import rx.schedulers.SwingScheduler;
+
+public class EdtMonitorTest {
+
+    @After
+    public void uninstall() {
+        EdtMonitor.uninstall();
+    }
+
+    @Test
+    public void testRecordsQueueLatencyAndExecutionTimeOfDeferredActions() throws Exception {
+        EdtMonitor monitor = EdtMonitor.install();
+        Worker inner = SwingScheduler.getInstance().createWorker();
+        final CountDownLatch latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            inner.schedule(new Action0() {
+                @Override
+                public void call() {
+                    latch.countDown();
+                }
+            });
+        }
+        awaitAndDrain(latch);
+        inner.unsubscribe();
+
+        assertTrue(monitor.getActionCount() >= 10);
+        assertTrue(monitor.getQueueLatency().getCount() >= 10);
+        assertTrue(monitor.getExecutionTime().getCount() >= 10);
+        assertEquals(0, monitor.getStallCount());
+    }
+
+    @Test
+    public void testCapturesTheStackOfAStallingAction() throws Exception {
+        EdtMonitor monitor = EdtMonitor.install(20, TimeUnit.MILLISECONDS);
+        Worker inner = SwingScheduler.getInstance().createWorker();
+        final CountDownLatch latch = new CountDownLatch(1);
+        inner.schedule(new Action0() {
+            @Override
+            public void call() {
+                stall(200);
+                latch.countDown();
+            }
+        });
+        awaitAndDrain(latch);
+        inner.unsubscribe();
+
+        assertEquals(1, monitor.getStallCount());
+        List<StallReport> reports = monitor.getRecentStallReports();
+        assertEquals(1, reports.size());
+        assertTrue(reports.get(0).getAction().startsWith(EdtMonitorTest.class.getName()));
+        assertTrue(reports.get(0).getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(Arrays.toString(reports.get(0).getStackTrace()), containsMethod(reports.get(0).getStackTrace(), "stall"));
+        assertTrue(monitor.getRecentStalls()[0].contains("EdtMonitorTest.stall"));
+    }
+
+    @Test
+    public void testIsRegisteredAsMBeanWhileInstalled() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EdtMonitor.OBJECT_NAME);
+
+        EdtMonitor.install(50, TimeUnit.MILLISECONDS);
+        assertTrue(server.isRegistered(name));
+        assertEquals(50L, server.getAttribute(name, "StallThresholdMillis"));
+
+        EdtMonitor.uninstall();
+        assertFalse(server.isRegistered(name));
+        assertNull(EdtMonitor.getInstalled());
+    }
+
+    @Test
+    public void testRecordsNothingOnceUninstalled() throws Exception {
+        EdtMonitor monitor = EdtMonitor.install();
+        EdtMonitor.uninstall();
+
+        Worker inner = SwingScheduler.getInstance().createWorker();
+        final CountDownLatch latch = new CountDownLatch(1);
+        inner.schedule(new Action0() {
+            @Override
+            public void call() {
+                latch.countDown();
+            }
+        });
+        awaitAndDrain(latch);
+        inner.unsubscribe();
+
+        assertEquals(0, monitor.getActionCount());
+    }
+
+    private static void stall(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean containsMethod(StackTraceElement[] stackTrace, String methodName) {
+        for (StackTraceElement element : stackTrace) {
+            if (element.getClassName().equals(EdtMonitorTest.class.getName()) && element.getMethodName().equals(methodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void awaitAndDrain(CountDownLatch latch) throws Exception {
+        if (!latch.await(5000, TimeUnit.MILLISECONDS)) {
+            fail("timed out waiting for tasks to execute");
+        }
+        // the timings are recorded after the action has returned
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // nothing to do, we're just waiting here for the event queue to be emptied
+            }
+        });
+    }
+}
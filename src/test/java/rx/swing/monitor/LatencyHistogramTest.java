@@ -0,0 +1,75 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverAllValuesWithBoundedRelativeError() {
+        long[] values = { 0, 1, 31, 32, 33, 63, 64, 1000, 999999, 123456789L, Long.MAX_VALUE / 3, Long.MAX_VALUE };
+        int previousIndex = -1;
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue("index of " + value + " must not decrease", index >= previousIndex);
+            previousIndex = index;
+
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertTrue(value + " is above its bucket " + highest, value <= highest);
+            assertTrue(value + " is too far below its bucket " + highest, highest - value <= value / 16);
+            if (index > 0) {
+                assertTrue(value + " belongs to the previous bucket", value > LatencyHistogram.highestValueOf(index - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean(), 0.001);
+        assertWithin(500000, histogram.getValueAtPercentile(50));
+        assertWithin(990000, histogram.getValueAtPercentile(99));
+        assertEquals(1000000, histogram.getValueAtPercentile(100));
+        assertWithin(1000, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.record(-1);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                actual >= expected && actual - expected <= expected / 16);
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import rx.Subscription;
+import rx.functions.Actions;
+import rx.observables.SwingObservable;
+
+public class SwingSubscriptionRegistryTest {
+
+    private final JPanel parent = new JPanel();
+    private final JPanel panel = new JPanel();
+
+    @Before
+    public void setUp() {
+        parent.add(panel);
+    }
+
+    @After
+    public void uninstall() {
+        SwingSubscriptionRegistry.uninstall();
+    }
+
+    @Test
+    public void testRecordsLiveSubscriptionsWithTheirAllocationSite() throws Exception {
+        SwingSubscriptionRegistry registry = SwingSubscriptionRegistry.install();
+        panel.setName("panel");
+
+        Subscription subscription = subscribe();
+
+        List<SubscriptionReport> live = registry.getLiveSubscriptions();
+        assertEquals(1, live.size());
+        assertEquals("javax.swing.JPanel 'panel'", live.get(0).getSource());
+        assertTrue(live.get(0).toString(), live.get(0).toString().contains(getClass().getName() + "$"));
+
+        subscription.unsubscribe();
+
+        assertTrue(registry.getLiveSubscriptions().isEmpty());
+    }
+
+    @Test
+    public void testRecordsTheSubscribingCallOffTheSwingThread() throws Exception {
+        SwingSubscriptionRegistry registry = SwingSubscriptionRegistry.install();
+
+        Subscription subscription = SwingObservable.fromMouseEvents(panel)
+                .skip(1)
+                .subscribe(Actions.empty());
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // subscribed on the Swing UI thread in an earlier event
+            }
+        });
+
+        List<SubscriptionReport> live = registry.getLiveSubscriptions();
+        assertEquals(1, live.size());
+        assertEquals("MouseListener", live.get(0).getListener());
+        StackTraceElement site = live.get(0).getStackTrace()[0];
+        assertEquals(getClass().getName(), site.getClassName());
+        assertEquals("testRecordsTheSubscribingCallOffTheSwingThread", site.getMethodName());
+
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void testReportsSubscriptionsOfUndisplayableComponents() throws Exception {
+        SwingSubscriptionRegistry registry = SwingSubscriptionRegistry.install(10, TimeUnit.MILLISECONDS, false);
+        setDisplayable(true);
+        Subscription subscription = subscribe();
+
+        setDisplayable(false);
+        awaitLeaks(registry, 1);
+
+        assertEquals(1, registry.getRecentLeaks().size());
+        assertFalse(subscription.isUnsubscribed());
+    }
+
+    @Test
+    public void testDisposesSubscriptionsOfUndisplayableComponents() throws Exception {
+        SwingSubscriptionRegistry registry = SwingSubscriptionRegistry.install(10, TimeUnit.MILLISECONDS, true);
+        setDisplayable(true);
+        Subscription subscription = subscribe();
+
+        setDisplayable(false);
+        awaitLeaks(registry, 1);
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // the subscription was unsubscribed in an earlier event
+            }
+        });
+
+        assertTrue(subscription.isUnsubscribed());
+        assertTrue(registry.getLiveSubscriptions().isEmpty());
+        assertEquals(0, panel.getMouseListeners().length);
+    }
+
+    @Test
+    public void testComponentsDisplayedAgainWithinTheGracePeriodAreNotReported() throws Exception {
+        SwingSubscriptionRegistry registry = SwingSubscriptionRegistry.install(200, TimeUnit.MILLISECONDS, true);
+        setDisplayable(true);
+        Subscription subscription = subscribe();
+
+        setDisplayable(false);
+        setDisplayable(true);
+        Thread.sleep(400);
+
+        assertEquals(0, registry.getLeakCount());
+        assertFalse(subscription.isUnsubscribed());
+    }
+
+    private Subscription subscribe() throws Exception {
+        final Subscription[] subscription = new Subscription[1];
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                subscription[0] = SwingObservable.fromMouseEvents(panel).subscribe(Actions.empty());
+            }
+        });
+        return subscription[0];
+    }
+
+    private void setDisplayable(final boolean displayable) throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                if (displayable) {
+                    parent.addNotify();
+                } else {
+                    parent.removeNotify();
+                }
+            }
+        });
+    }
+
+    private static void awaitLeaks(SwingSubscriptionRegistry registry, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.getLeakCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, registry.getLeakCount());
+    }
+}
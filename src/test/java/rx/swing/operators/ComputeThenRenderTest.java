@@ -0,0 +1,147 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.operators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+public class ComputeThenRenderTest {
+
+    @Test
+    public void testValuesAreRenderedInBoundedChunksOnTheSwingThread() {
+        final List<Boolean> onSwingThread = Collections.synchronizedList(new ArrayList<Boolean>());
+        TestSubscriber<List<Integer>> subscriber = TestSubscriber.create();
+
+        Observable.just(10000)
+                .compose(ComputeThenRender.create(new Func1<Integer, Observable<Integer>>() {
+                    @Override
+                    public Observable<Integer> call(Integer count) {
+                        return Observable.range(0, count);
+                    }
+                }, Schedulers.computation(), 100))
+                .doOnNext(new Action1<List<Integer>>() {
+                    @Override
+                    public void call(List<Integer> chunk) {
+                        onSwingThread.add(SwingUtilities.isEventDispatchThread());
+                    }
+                })
+                .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertCompleted();
+        List<Integer> values = new ArrayList<Integer>();
+        for (List<Integer> chunk : subscriber.getOnNextEvents()) {
+            assertTrue(chunk.size() + " values in a chunk", chunk.size() <= 100);
+            values.addAll(chunk);
+        }
+        assertEquals(10000, values.size());
+        assertEquals(9999, (int) values.get(9999));
+        assertFalse(onSwingThread.contains(false));
+    }
+
+    @Test
+    public void testValuesOfOneTurnAreRenderedAsOneChunk() throws Exception {
+        final PublishSubject<Integer> values = PublishSubject.create();
+        TestSubscriber<List<Integer>> subscriber = TestSubscriber.create();
+        Observable.just("trigger")
+                .compose(ComputeThenRender.create(new Func1<String, Observable<Integer>>() {
+                    @Override
+                    public Observable<Integer> call(String trigger) {
+                        return values;
+                    }
+                }, Schedulers.immediate(), 16))
+                .subscribe(subscriber);
+
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                values.onNext(1);
+                values.onNext(2);
+                values.onNext(3);
+            }
+        });
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                values.onNext(4);
+                values.onCompleted();
+            }
+        });
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        List<List<Integer>> chunks = new ArrayList<List<Integer>>();
+        chunks.add(Arrays.asList(1, 2, 3));
+        chunks.add(Arrays.asList(4));
+        assertEquals(chunks, subscriber.getOnNextEvents());
+        subscriber.assertCompleted();
+    }
+
+    @Test
+    public void testLatestTriggerWins() throws Exception {
+        final PublishSubject<String> triggers = PublishSubject.create();
+        final PublishSubject<String> first = PublishSubject.create();
+        final PublishSubject<String> second = PublishSubject.create();
+        TestSubscriber<List<String>> subscriber = TestSubscriber.create();
+        triggers.compose(ComputeThenRender.create(new Func1<String, Observable<String>>() {
+            @Override
+            public Observable<String> call(String trigger) {
+                return trigger.equals("first") ? first : second;
+            }
+        }, Schedulers.immediate(), 16)).subscribe(subscriber);
+
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                triggers.onNext("first");
+                first.onNext("not rendered yet");
+                triggers.onNext("second");
+                second.onNext("rendered");
+            }
+        });
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                // the chunk was rendered in an earlier event
+            }
+        });
+
+        assertFalse(first.hasObservers());
+        subscriber.assertValue(Arrays.asList("rendered"));
+    }
+
+    private static void onSwingThread(Runnable runnable) throws Exception {
+        EventQueue.invokeAndWait(runnable);
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.replay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.awt.KeyboardFocusManager;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+import org.junit.Test;
+
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.observables.SwingObservable;
+import rx.observers.TestSubscriber;
+
+public class EventRecorderTest {
+
+    private final JPanel recorded = new JPanel();
+    private final JPanel replayed = new JPanel();
+
+    @Test
+    public void testReplaysMouseAndKeyEventsIntoAnotherComponent() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final EventRecorder recorder = new EventRecorder(bytes);
+        List<String> original = describe(inputEventsOf(recorded));
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                recorder.recordInputEvents(7, inputEventsOf(recorded));
+            }
+        });
+
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                recorded.dispatchEvent(new MouseEvent(recorded, MouseEvent.MOUSE_PRESSED, 1L,
+                        InputEvent.BUTTON1_DOWN_MASK, 10, -3, 1, false, MouseEvent.BUTTON1));
+                recorded.dispatchEvent(new MouseEvent(recorded, MouseEvent.MOUSE_DRAGGED, 2L,
+                        InputEvent.BUTTON1_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK, 300, 2000, 0, false,
+                        MouseEvent.NOBUTTON));
+                recorded.dispatchEvent(new MouseWheelEvent(recorded, MouseEvent.MOUSE_WHEEL, 3L, 0, 5, 6, 5, 6, 0,
+                        false, MouseWheelEvent.WHEEL_UNIT_SCROLL, 3, -2, -1.5));
+                dispatchKeyEvent(new KeyEvent(recorded, KeyEvent.KEY_PRESSED, 4L, 0, KeyEvent.VK_A, 'a',
+                        KeyEvent.KEY_LOCATION_STANDARD));
+                dispatchKeyEvent(new KeyEvent(recorded, KeyEvent.KEY_TYPED, 5L, 0, KeyEvent.VK_UNDEFINED,
+                        '\u00e4', KeyEvent.KEY_LOCATION_UNKNOWN));
+            }
+        });
+        recorder.close();
+
+        EventReplayer replayer = new EventReplayer(new ByteArrayInputStream(bytes.toByteArray()));
+        List<String> replayedEvents = describe(inputEventsOf(replayed));
+        TestSubscriber<Object> subscriber = TestSubscriber.create();
+        replayer.replay(targets(7, replayed), Double.POSITIVE_INFINITY).subscribe(subscriber);
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        subscriber.assertCompleted();
+        assertEquals(5, replayer.getEventCount());
+        assertEquals(5, original.size());
+        assertEquals(original, replayedEvents);
+        assertTrue(bytes.size() + " bytes", bytes.size() < 100);
+    }
+
+    @Test
+    public void testReplaysDocumentEdits() throws Exception {
+        final Document document = new PlainDocument();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EventRecorder recorder = new EventRecorder(bytes);
+        recorder.recordDocumentEdits(1, SwingObservable.fromDocumentEdits(document));
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    document.insertString(0, "hello world", null);
+                    document.remove(0, 6);
+                    document.insertString(5, "!\nsecond line", null);
+                } catch (BadLocationException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        recorder.close();
+
+        Document copy = new PlainDocument();
+        TestSubscriber<Object> subscriber = TestSubscriber.create();
+        new EventReplayer(new ByteArrayInputStream(bytes.toByteArray()))
+                .replay(targets(1, copy), Double.POSITIVE_INFINITY)
+                .subscribe(subscriber);
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        subscriber.assertValueCount(3);
+        assertEquals(document.getText(0, document.getLength()), copy.getText(0, copy.getLength()));
+    }
+
+    @Test
+    public void testKeepsTheSpacingOfTheEventsDividedByTheSpeed() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final EventRecorder recorder = new EventRecorder(bytes);
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                recorder.recordInputEvents(7, inputEventsOf(recorded));
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            onSwingThread(new Runnable() {
+                @Override
+                public void run() {
+                    recorded.dispatchEvent(new MouseEvent(recorded, MouseEvent.MOUSE_MOVED, 1L, 0, 1, 2, 0, false,
+                            MouseEvent.NOBUTTON));
+                }
+            });
+            Thread.sleep(100);
+        }
+        recorder.close();
+
+        EventReplayer replayer = new EventReplayer(new ByteArrayInputStream(bytes.toByteArray()));
+        long start = System.nanoTime();
+        replayer.replay(targets(7, replayed), 2).toBlocking().last();
+        long replayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long recordedMillis = replayer.getDuration(TimeUnit.MILLISECONDS);
+        assertTrue(recordedMillis + " ms recorded", recordedMillis >= 200);
+        assertTrue(replayMillis + " ms replayed", replayMillis >= recordedMillis / 2);
+    }
+
+    @Test
+    public void testCompletesOnlyOnceWhenRequestedAfterTheEnd() throws Exception {
+        final Document document = new PlainDocument();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EventRecorder recorder = new EventRecorder(bytes);
+        recorder.recordDocumentEdits(1, SwingObservable.fromDocumentEdits(document));
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    document.insertString(0, "edit", null);
+                } catch (BadLocationException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        recorder.close();
+
+        TestSubscriber<Object> subscriber = TestSubscriber.create(1);
+        // not wrapped into a SafeSubscriber, which would hide a second completion
+        new EventReplayer(new ByteArrayInputStream(bytes.toByteArray()))
+                .replay(targets(1, new PlainDocument()), Double.POSITIVE_INFINITY)
+                .unsafeSubscribe(subscriber);
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.requestMore(1);
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                // the replay steps were scheduled in earlier events
+            }
+        });
+
+        subscriber.assertValueCount(1);
+        assertEquals(1, subscriber.getCompletions());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsStreamsThatAreNoRecordings() throws Exception {
+        new EventReplayer(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+    }
+
+    private static Observable<InputEvent> inputEventsOf(JPanel panel) {
+        return Observable.<InputEvent> merge(SwingObservable.fromMouseEvents(panel),
+                SwingObservable.fromMouseMotionEvents(panel), SwingObservable.fromMouseWheelEvents(panel),
+                SwingObservable.fromKeyEvents(panel));
+    }
+
+    private void dispatchKeyEvent(KeyEvent event) {
+        // without the focus, the panel would not get it otherwise
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().redispatchEvent(recorded, event);
+    }
+
+    private static List<String> describe(Observable<InputEvent> events) throws Exception {
+        final List<String> descriptions = Collections.synchronizedList(new ArrayList<String>());
+        events.subscribe(new Action1<InputEvent>() {
+            @Override
+            public void call(InputEvent event) {
+                // the source and the time stamp differ
+                descriptions.add(event.paramString().replaceAll(",when=\\d+", ""));
+            }
+        });
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                // subscribed in an earlier event
+            }
+        });
+        return descriptions;
+    }
+
+    private static Func1<Integer, Object> targets(final int id, final Object target) {
+        return new Func1<Integer, Object>() {
+            @Override
+            public Object call(Integer targetId) {
+                assertEquals(id, (int) targetId);
+                return target;
+            }
+        };
+    }
+
+    private static void onSwingThread(Runnable runnable) throws Exception {
+        EventQueue.invokeAndWait(runnable);
+    }
+}
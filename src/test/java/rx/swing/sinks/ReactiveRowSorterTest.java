@@ -0,0 +1,385 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.RowSorter.SortKey;
+import javax.swing.SortOrder;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.table.AbstractTableModel;
+
+import org.junit.After;
+import org.junit.Test;
+
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.plugins.RxJavaHooks;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+public class ReactiveRowSorterTest {
+
+    private static final int ROWS = ReactiveRowSorter.CHUNK_SIZE * 3 + 17;
+
+    // an immutable snapshot of the rows, safe to read from the computation threads
+    private final int[] values = new int[ROWS];
+    private final ValuesModel model = new ValuesModel();
+    private final ReactiveRowSorter<ValuesModel> sorter = new ReactiveRowSorter<ValuesModel>(model, Schedulers.computation());
+    private final PublishSubject<Func1<Integer, Boolean>> filters = PublishSubject.create();
+
+    public ReactiveRowSorterTest() {
+        for (int i = 0; i < ROWS; i++) {
+            values[i] = (i * 7919) % ROWS;
+        }
+        sorter.subscribeToFilters(filters);
+    }
+
+    @After
+    public void tearDown() {
+        sorter.dispose();
+    }
+
+    @Test
+    public void testFilterAcrossChunks() throws Exception {
+        filters.onNext(valueDivisibleBy(2));
+        awaitViewRowCount((ROWS + 1) / 2);
+
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                int previous = -1;
+                for (int i = 0; i < sorter.getViewRowCount(); i++) {
+                    int modelIndex = sorter.convertRowIndexToModel(i);
+                    assertTrue(modelIndex > previous);
+                    assertEquals(0, values[modelIndex] % 2);
+                    assertEquals(i, sorter.convertRowIndexToView(modelIndex));
+                    previous = modelIndex;
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSortAcrossChunks() throws Exception {
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                sorter.setComparator(0, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer row1, Integer row2) {
+                        return values[row1] - values[row2];
+                    }
+                });
+                sorter.setSortKeys(Collections.singletonList(new SortKey(0, SortOrder.DESCENDING)));
+            }
+        });
+        filters.onNext(valueDivisibleBy(3));
+        awaitViewRowCount((ROWS + 2) / 3);
+
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < sorter.getViewRowCount(); i++) {
+                    assertEquals((ROWS - 1) / 3 * 3 - i * 3, values[sorter.convertRowIndexToModel(i)]);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testOnlyTheLatestFilterIsPublished() throws Exception {
+        final AtomicInteger published = new AtomicInteger();
+        sorter.addRowSorterListener(new RowSorterListener() {
+            @Override
+            public void sorterChanged(RowSorterEvent e) {
+                if (e.getType() == RowSorterEvent.Type.SORTED) {
+                    published.incrementAndGet();
+                }
+            }
+        });
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                // no result can be published before all filters have arrived
+                for (int i = 2; i < 50; i++) {
+                    filters.onNext(valueDivisibleBy(i));
+                }
+                filters.onNext(valueDivisibleBy(ROWS));
+            }
+        });
+        awaitViewRowCount(1);
+
+        assertEquals(1, published.get());
+    }
+
+    @Test
+    public void testDeletedRowsLeaveTheViewAtOnce() throws Exception {
+        filters.onNext(valueDivisibleBy(2));
+        awaitViewRowCount((ROWS + 1) / 2);
+
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                int first = sorter.convertRowIndexToModel(0);
+                model.rowCount -= 1;
+                sorter.rowsDeleted(first, first);
+
+                assertEquals((ROWS + 1) / 2 - 1, sorter.getViewRowCount());
+                for (int i = 0; i < sorter.getViewRowCount(); i++) {
+                    assertTrue(sorter.convertRowIndexToModel(i) < model.getRowCount());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testAViewIsPublishedWhileTheRowsKeepBeingUpdated() throws Exception {
+        final Func1<Integer, Boolean> evenValues = valueDivisibleBy(2);
+        filters.onNext(new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer row) {
+                if ((row & 1023) == 0) {
+                    // takes longer than the updates arrive
+                    long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1);
+                    while (System.nanoTime() < until) {
+                        // spin
+                    }
+                }
+                return evenValues.call(row);
+            }
+        });
+
+        final int[] count = new int[1];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        do {
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    sorter.rowsUpdated(0, ROWS - 1);
+                    count[0] = sorter.getViewRowCount();
+                }
+            });
+            Thread.sleep(5);
+        } while (count[0] != (ROWS + 1) / 2 && System.nanoTime() < deadline);
+        assertEquals((ROWS + 1) / 2, count[0]);
+    }
+
+    @Test
+    public void testModelStructureChangeKeepsTheComparators() throws Exception {
+        filters.onNext(valueDivisibleBy(2));
+        awaitViewRowCount((ROWS + 1) / 2);
+
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sorter.convertRowIndexToModel(sorter.getViewRowCount());
+                    fail();
+                } catch (IndexOutOfBoundsException e) {
+                    assertEquals("Invalid index", e.getMessage());
+                }
+
+                sorter.setComparator(0, Collections.<Integer> reverseOrder());
+                sorter.setSortKeys(Collections.singletonList(new SortKey(0, SortOrder.ASCENDING)));
+                sorter.modelStructureChanged();
+                assertTrue(sorter.getSortKeys().isEmpty());
+
+                sorter.toggleSortOrder(0);
+                assertEquals(Collections.singletonList(new SortKey(0, SortOrder.ASCENDING)), sorter.getSortKeys());
+            }
+        });
+    }
+
+    @Test
+    public void testModelStructureChangeFiresSortOrderChanged() throws Exception {
+        final AtomicInteger sortOrderChanges = new AtomicInteger();
+        sorter.addRowSorterListener(new RowSorterListener() {
+            @Override
+            public void sorterChanged(RowSorterEvent e) {
+                if (e.getType() == RowSorterEvent.Type.SORT_ORDER_CHANGED) {
+                    sortOrderChanges.incrementAndGet();
+                }
+            }
+        });
+
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                sorter.setComparator(0, Collections.<Integer> reverseOrder());
+                sorter.toggleSortOrder(0);
+                assertEquals(1, sortOrderChanges.get());
+
+                sorter.modelStructureChanged();
+                assertEquals(2, sortOrderChanges.get());
+
+                // the sort order stays empty
+                sorter.modelStructureChanged();
+                assertEquals(2, sortOrderChanges.get());
+            }
+        });
+    }
+
+    @Test
+    public void testSortsAgainAfterAComparatorOrTheFiltersFailed() throws Exception {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        RxJavaHooks.setOnError(new Action1<Throwable>() {
+            @Override
+            public void call(Throwable e) {
+                errors.add(e);
+            }
+        });
+        try {
+            filters.onNext(valueDivisibleBy(2));
+            awaitViewRowCount((ROWS + 1) / 2);
+
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    sorter.setComparator(0, new Comparator<Integer>() {
+                        @Override
+                        public int compare(Integer row1, Integer row2) {
+                            throw new IllegalStateException("comparator");
+                        }
+                    });
+                    sorter.toggleSortOrder(0);
+                }
+            });
+            filters.onError(new IllegalStateException("filters"));
+            awaitErrors(errors, 2);
+            awaitViewRowCount((ROWS + 1) / 2);
+
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    sorter.setComparator(0, new Comparator<Integer>() {
+                        @Override
+                        public int compare(Integer row1, Integer row2) {
+                            return values[row1] - values[row2];
+                        }
+                    });
+                    sorter.setSortKeys(Collections.singletonList(new SortKey(0, SortOrder.ASCENDING)));
+                }
+            });
+            awaitSorted();
+
+            // the last filter stayed in effect
+            assertEquals((ROWS + 1) / 2, getViewRowCount());
+            assertEquals(2, errors.size());
+        } finally {
+            RxJavaHooks.reset();
+        }
+    }
+
+    private void awaitSorted() throws Exception {
+        final boolean[] sorted = new boolean[1];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        do {
+            Thread.sleep(10);
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    sorted[0] = true;
+                    for (int i = 1; i < sorter.getViewRowCount(); i++) {
+                        if (values[sorter.convertRowIndexToModel(i - 1)] > values[sorter.convertRowIndexToModel(i)]) {
+                            sorted[0] = false;
+                            return;
+                        }
+                    }
+                }
+            });
+        } while (!sorted[0] && System.nanoTime() < deadline);
+        assertTrue(sorted[0]);
+    }
+
+    private static void awaitErrors(List<Throwable> errors, int expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (errors.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, errors.size());
+    }
+
+    private int getViewRowCount() throws Exception {
+        final int[] count = new int[1];
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                count[0] = sorter.getViewRowCount();
+            }
+        });
+        return count[0];
+    }
+
+    private Func1<Integer, Boolean> valueDivisibleBy(final int divisor) {
+        return new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(Integer row) {
+                return values[row] % divisor == 0;
+            }
+        };
+    }
+
+    private void awaitViewRowCount(final int expected) throws Exception {
+        final int[] count = new int[1];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        do {
+            Thread.sleep(10);
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    count[0] = sorter.getViewRowCount();
+                }
+            });
+        } while (count[0] != expected && System.nanoTime() < deadline);
+        assertEquals(expected, count[0]);
+    }
+
+    private static void onEdt(Runnable runnable) throws Exception {
+        EventQueue.invokeAndWait(runnable);
+    }
+
+    @SuppressWarnings("serial")
+    private final class ValuesModel extends AbstractTableModel {
+        int rowCount = ROWS;
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return values[rowIndex];
+        }
+    }
+}
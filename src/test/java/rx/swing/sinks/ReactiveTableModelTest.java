@@ -0,0 +1,215 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import rx.functions.Action1;
+import rx.functions.Func2;
+import rx.plugins.RxJavaHooks;
+import rx.subjects.PublishSubject;
+
+public class ReactiveTableModelTest {
+
+    private final PublishSubject<RowChange<String>> changes = PublishSubject.create();
+    private final List<String> events = new ArrayList<String>();
+    private ReactiveTableModel<String> model;
+
+    @Before
+    public void setUp() throws Exception {
+        model = new ReactiveTableModel<String>(Arrays.asList("value", "length"), new Func2<String, Integer, Object>() {
+            @Override
+            public Object call(String row, Integer column) {
+                return column == 0 ? row : row.length();
+            }
+        });
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                String type = e.getType() == TableModelEvent.INSERT ? "insert"
+                        : e.getType() == TableModelEvent.DELETE ? "delete" : "update";
+                events.add(e.getLastRow() == Integer.MAX_VALUE ? "data changed"
+                        : type + " " + e.getFirstRow() + "-" + e.getLastRow() + " of " + model.getRowCount());
+            }
+        });
+        model.subscribeTo(changes);
+    }
+
+    @Test
+    public void testAppendedRowsFireOneInsert() throws Exception {
+        List<RowChange<String>> inserts = new ArrayList<RowChange<String>>();
+        for (int i = 0; i < 100; i++) {
+            inserts.add(RowChange.insert(i, "row" + i));
+        }
+        emitInOneTurn(inserts);
+
+        assertEquals(Arrays.asList("insert 0-99 of 100"), events);
+        assertEquals(100, model.getRowCount());
+        assertEquals("row42", model.getValueAt(42, 0));
+        assertEquals(5, model.getValueAt(42, 1));
+    }
+
+    @Test
+    public void testUpdatesAreCollapsedIntoContiguousRanges() throws Exception {
+        fill(10);
+
+        List<RowChange<String>> updates = new ArrayList<RowChange<String>>();
+        for (int i : new int[] { 5, 1, 2, 3, 8, 2, 9 }) {
+            updates.add(RowChange.update(i, "updated"));
+        }
+        emitInOneTurn(updates);
+
+        assertEquals(Arrays.asList("update 1-3 of 10", "update 5-5 of 10", "update 8-9 of 10"), events);
+        assertEquals("updated", model.getRow(9));
+    }
+
+    @Test
+    public void testDeletesAreCollapsed() throws Exception {
+        fill(10);
+
+        // deleting the same index repeatedly, and the row before the deleted ones
+        emitInOneTurn(Arrays.asList(
+                RowChange.<String> delete(5),
+                RowChange.<String> delete(5),
+                RowChange.<String> delete(4)));
+
+        assertEquals(Arrays.asList("delete 4-6 of 7"), events);
+        assertEquals("row7", model.getRow(4));
+    }
+
+    @Test
+    public void testChangesAreFiredInOrderWhenTheyCannotBeCollapsed() throws Exception {
+        fill(5);
+
+        emitInOneTurn(Arrays.asList(
+                RowChange.update(0, "first"),
+                RowChange.insert(2, "inserted"),
+                RowChange.update(2, "inserted and updated"),
+                RowChange.insert(3, "also inserted"),
+                RowChange.<String> delete(3),
+                RowChange.<String> delete(0)));
+
+        assertEquals(Arrays.asList("update 0-0 of 5", "insert 2-2 of 6", "delete 0-0 of 5"), events);
+        assertEquals(Arrays.asList("row1", "inserted and updated", "row2", "row3", "row4"), rows());
+    }
+
+    @Test
+    public void testReplaceAllFiresDataChanged() throws Exception {
+        fill(5);
+
+        emitInOneTurn(Arrays.asList(
+                RowChange.update(0, "lost"),
+                RowChange.<String> replaceAll(Arrays.asList("a", "b")),
+                RowChange.insert(2, "c")));
+
+        assertEquals(Arrays.asList("data changed"), events);
+        assertEquals(Arrays.asList("a", "b", "c"), rows());
+    }
+
+    @Test
+    public void testInvalidChangesAreSkippedAndReported() throws Exception {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        RxJavaHooks.setOnError(new Action1<Throwable>() {
+            @Override
+            public void call(Throwable e) {
+                errors.add(e);
+            }
+        });
+        try {
+            fill(2);
+
+            emitInOneTurn(Arrays.asList(
+                    RowChange.update(2, "out of range"),
+                    RowChange.<String> delete(5),
+                    RowChange.insert(2, "appended")));
+            changes.onError(new IllegalStateException("upstream"));
+            awaitTurn();
+
+            assertEquals(Arrays.asList("row0", "row1", "appended"), rows());
+            assertEquals(Arrays.asList("insert 2-2 of 3"), events);
+            assertEquals(3, errors.size());
+            assertTrue(errors.get(0) instanceof IndexOutOfBoundsException);
+            assertTrue(errors.get(1) instanceof IndexOutOfBoundsException);
+            assertEquals("upstream", errors.get(2).getMessage());
+        } finally {
+            RxJavaHooks.reset();
+        }
+    }
+
+    @Test
+    public void testChangesOfDifferentTurnsAreNotCollapsed() throws Exception {
+        changes.onNext(RowChange.insert(0, "first"));
+        awaitTurn();
+        changes.onNext(RowChange.insert(1, "second"));
+        awaitTurn();
+
+        assertEquals(Arrays.asList("insert 0-0 of 1", "insert 1-1 of 2"), events);
+    }
+
+    private void fill(int count) throws Exception {
+        List<String> rows = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            rows.add("row" + i);
+        }
+        emitInOneTurn(Collections.singletonList(RowChange.<String> replaceAll(rows)));
+        events.clear();
+    }
+
+    private List<String> rows() {
+        List<String> rows = new ArrayList<String>();
+        for (int i = 0; i < model.getRowCount(); i++) {
+            rows.add(model.getRow(i));
+        }
+        return rows;
+    }
+
+    /**
+     * Emits the changes from within an event on the Swing UI thread, so they cannot be applied in between.
+     */
+    private void emitInOneTurn(final List<RowChange<String>> changesOfTurn) throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (RowChange<String> change : changesOfTurn) {
+                    changes.onNext(change);
+                }
+            }
+        });
+        awaitTurn();
+    }
+
+    private static void awaitTurn() throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // the changes were applied in an earlier event
+            }
+        });
+    }
+}
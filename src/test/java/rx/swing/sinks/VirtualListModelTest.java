@@ -0,0 +1,176 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sinks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import rx.Observable;
+import rx.functions.Func2;
+import rx.subjects.PublishSubject;
+
+public class VirtualListModelTest {
+
+    private static final int ROWS = 100000000;
+
+    // the pending page loads, by the index of their first row
+    private final Map<Integer, PublishSubject<List<String>>> loads = new LinkedHashMap<Integer, PublishSubject<List<String>>>();
+    private final List<String> events = new ArrayList<String>();
+    private VirtualListModel<String> model;
+
+    @Before
+    public void setUp() throws Exception {
+        model = new VirtualListModel<String>(ROWS, 100, 1, 4, new Func2<Integer, Integer, Observable<List<String>>>() {
+            @Override
+            public Observable<List<String>> call(Integer start, Integer length) {
+                PublishSubject<List<String>> load = PublishSubject.create();
+                loads.put(start, load);
+                return load;
+            }
+        });
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("added " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("removed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("changed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+        });
+    }
+
+    @Test
+    public void testOnlyTheVisibleAndPrefetchedPagesAreLoaded() throws Exception {
+        showRows(5000, 5049);
+
+        assertEquals(Arrays.asList(4900, 5000, 5100), new ArrayList<Integer>(loads.keySet()));
+        assertEquals(ROWS, model.getSize());
+        assertNull(model.getElementAt(5000));
+    }
+
+    @Test
+    public void testLoadedPageIsServedAndAnnounced() throws Exception {
+        showRows(5000, 5049);
+
+        completeLoad(5000);
+
+        assertEquals(Arrays.asList("changed 5000-5099"), events);
+        assertEquals("row5042", model.getElementAt(5042));
+        assertTrue(model.isLoaded(5099));
+        assertFalse(model.isLoaded(5100));
+    }
+
+    @Test
+    public void testScrollingAwayCancelsTheLoadsOfTheHiddenPages() throws Exception {
+        showRows(5000, 5049);
+        PublishSubject<List<String>> hidden = loads.get(4900);
+
+        showRows(5150, 5199);
+
+        assertFalse(hidden.hasObservers());
+        assertTrue(loads.get(5000).hasObservers());
+        assertEquals(5200, (int) new ArrayList<Integer>(loads.keySet()).get(loads.size() - 1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPagesAreEvicted() throws Exception {
+        showRows(5000, 5049);
+        completeLoad(4900);
+        completeLoad(5000);
+        completeLoad(5100);
+
+        showRows(5150, 5199);
+        completeLoad(5200);
+        showRows(9000, 9049);
+        completeLoad(8900);
+        completeLoad(9000);
+
+        // the pages before 5100 were used least recently and made room for the new ones
+        assertFalse(model.isLoaded(4900));
+        assertFalse(model.isLoaded(5000));
+        assertTrue(model.isLoaded(5200));
+        assertTrue(model.isLoaded(9000));
+    }
+
+    @Test
+    public void testChangingTheSizeDiscardsThePagesAndReloadsTheVisibleOnes() throws Exception {
+        showRows(0, 49);
+        completeLoad(0);
+        events.clear();
+        loads.clear();
+
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.setSize(150);
+            }
+        });
+
+        assertEquals(Arrays.asList("removed 150-99999999", "changed 0-149"), events);
+        assertFalse(model.isLoaded(0));
+        assertEquals(Arrays.asList(0, 100), new ArrayList<Integer>(loads.keySet()));
+    }
+
+    private void showRows(final int first, final int last) throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.setVisibleRange(first, last);
+            }
+        });
+    }
+
+    private void completeLoad(final int start) throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                List<String> rows = new ArrayList<String>();
+                for (int i = start; i < start + 100; i++) {
+                    rows.add("row" + i);
+                }
+                loads.get(start).onNext(rows);
+            }
+        });
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // the page was added to the model in an earlier event
+            }
+        });
+    }
+}
@@ -26,6 +26,7 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import java.awt.*;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -464,6 +465,57 @@ public class ChangeEventSourceTest {
 		}).awaitTerminal();
 	}
 
+	@Test
+	public void objectWithChangeListenerSupport_isCalledThroughMethodHandles() throws Throwable {
+		SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+			@Override
+			public void call() {
+				ChangeSupport changeSupport = new ChangeSupport();
+				ChangeSupport otherChangeSupport = new ChangeSupport();
+				TestSubscriber<ChangeEvent> testSubscriber = TestSubscriber.create();
+				TestSubscriber<ChangeEvent> otherTestSubscriber = TestSubscriber.create();
+
+				Subscription subscription = ChangeEventSource.fromChangeEventsOf(changeSupport).subscribe(testSubscriber);
+				Subscription otherSubscription = ChangeEventSource.fromChangeEventsOf(otherChangeSupport).subscribe(otherTestSubscriber);
+				assertEquals(1, changeSupport.listeners.size());
+
+				ChangeEvent event = changeSupport.fireStateChanged();
+				testSubscriber.assertValue(event);
+				otherTestSubscriber.assertNoValues();
+
+				subscription.unsubscribe();
+				otherSubscription.unsubscribe();
+				assertEquals(0, changeSupport.listeners.size());
+				assertEquals(0, otherChangeSupport.listeners.size());
+				testSubscriber.assertNoErrors();
+			}
+		}).awaitTerminal();
+	}
+
+	/**
+	 * Not public, so its public methods are not accessible without reflection.
+	 */
+	private static final class ChangeSupport {
+		final List<ChangeListener> listeners = new ArrayList<ChangeListener>();
+
+		public void addChangeListener(ChangeListener listener) {
+			listeners.add(listener);
+		}
+
+		public void removeChangeListener(ChangeListener listener) {
+			listeners.remove(listener);
+		}
+
+		ChangeEvent fireStateChanged() {
+			ChangeEvent event = new ChangeEvent(this);
+			for (ChangeListener listener : listeners) {
+				listener.stateChanged(event);
+			}
+			return event;
+		}
+	}
+
 	private static JTabbedPane createTabbedPane() {
 		final JTabbedPane tabbedPane = new JTabbedPane();
 		tabbedPane.addTab("tab1", new JPanel());
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+
+import javax.swing.JPanel;
+import javax.swing.JTabbedPane;
+
+import org.junit.Test;
+
+import rx.observables.SwingObservable;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+public class ComponentEventSourceTest {
+
+    private final PublishSubject<String> feed = PublishSubject.create();
+    private final TestSubscriber<String> subscriber = TestSubscriber.create();
+
+    @Test
+    public void testWhileVisibleSubscribesOnlyWhileTheComponentIsShowing() throws Exception {
+        final JPanel parent = new JPanel();
+        final JPanel panel = new JPanel();
+        parent.add(panel);
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                parent.addNotify();
+            }
+        });
+        SwingObservable.whileVisible(panel, feed).subscribe(subscriber);
+        awaitTurn();
+        assertTrue(feed.hasObservers());
+        feed.onNext("first");
+        feed.onNext("latest");
+
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                parent.setVisible(false);
+            }
+        });
+        assertFalse(feed.hasObservers());
+
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                parent.setVisible(true);
+            }
+        });
+        assertTrue(feed.hasObservers());
+        feed.onNext("after showing again");
+
+        subscriber.assertValues("first", "latest", "latest", "after showing again");
+        subscriber.assertNotCompleted();
+    }
+
+    @Test
+    public void testWhileVisiblePausesTheFeedsOfDeselectedTabs() throws Exception {
+        final JTabbedPane tabs = new JTabbedPane();
+        final JPanel first = new JPanel();
+        final JPanel second = new JPanel();
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                tabs.addTab("first", first);
+                tabs.addTab("second", second);
+                tabs.addNotify();
+            }
+        });
+        PublishSubject<String> secondFeed = PublishSubject.create();
+        SwingObservable.whileVisible(first, feed).subscribe(subscriber);
+        SwingObservable.whileVisible(second, secondFeed).subscribe(TestSubscriber.<String> create());
+        awaitTurn();
+        assertTrue(feed.hasObservers());
+        assertFalse(secondFeed.hasObservers());
+
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                tabs.setSelectedIndex(1);
+            }
+        });
+
+        assertFalse(feed.hasObservers());
+        assertTrue(secondFeed.hasObservers());
+    }
+
+    private static void onSwingThread(Runnable runnable) throws Exception {
+        EventQueue.invokeAndWait(runnable);
+    }
+
+    private static void awaitTurn() throws Exception {
+        onSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                // the subscriptions were made in an earlier event
+            }
+        });
+    }
+}
@@ -17,11 +17,13 @@ package rx.swing.sources;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import javax.swing.JEditorPane;
 import javax.swing.event.DocumentEvent;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
 import javax.swing.text.Style;
 import javax.swing.text.StyleContext;
 import javax.swing.text.html.HTMLDocument;
@@ -33,6 +35,9 @@ import rx.functions.Action1;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 import rx.Subscription;
+import rx.observers.TestSubscriber;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.*;
 import rx.observables.SwingObservable;
 
@@ -130,6 +135,38 @@ public class DocumentEventSourceTest {
         }).awaitTerminal();
     }
 
+    @Test
+    public void testObservingDocumentEdits() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                Document doc = new PlainDocument();
+                insertStringToDocument(doc, 0, "hello world");
+                TestSubscriber<DocumentEdit> subscriber = TestSubscriber.create(0);
+                Subscription subscription = DocumentEventSource.fromDocumentEditsOf(doc).subscribe(subscriber);
+
+                insertStringToDocument(doc, 5, ",\nbig");
+                removeFromDocument(doc, 0, 7);
+                // the edits were buffered, but still have the text at the time of the edit
+                subscriber.requestMore(2);
+
+                List<DocumentEdit> edits = subscriber.getOnNextEvents();
+                assertEquals(2, edits.size());
+                assertEquals(5, edits.get(0).getOffset());
+                assertEquals(0, edits.get(0).getRemovedLength());
+                assertEquals(",\nbig", edits.get(0).getInsertedText().toString());
+                assertEquals(0, edits.get(1).getOffset());
+                assertEquals(7, edits.get(1).getRemovedLength());
+                assertEquals("", edits.get(1).getInsertedText().toString());
+                assertSame(doc, edits.get(1).getDocument());
+
+                subscription.unsubscribe();
+            }
+
+        }).awaitTerminal();
+    }
+
     private static Matcher<DocumentEvent> documentEventMatcher(final DocumentEvent.EventType eventType) {
         return new ArgumentMatcher<DocumentEvent>() {
             @Override
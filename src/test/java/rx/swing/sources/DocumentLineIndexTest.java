@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+
+import org.junit.Test;
+
+import rx.Subscription;
+import rx.functions.Action0;
+
+public class DocumentLineIndexTest {
+
+    @Test
+    public void testIndexOfExistingText() throws Throwable {
+        Document document = new PlainDocument();
+        document.insertString(0, "first\nsecond\n\nfourth", null);
+
+        DocumentLineIndex index = DocumentLineIndex.of(document);
+        assertEquals(4, index.getLineCount());
+        assertEquals(0, index.getLineStartOffset(0));
+        assertEquals(6, index.getLineStartOffset(1));
+        assertEquals(13, index.getLineStartOffset(2));
+        assertEquals(14, index.getLineStartOffset(3));
+        assertEquals(0, index.getLineOfOffset(5));
+        assertEquals(1, index.getLineOfOffset(6));
+        assertEquals(3, index.getLineOfOffset(20));
+    }
+
+    @Test
+    public void testIndexFollowsTheEditsOfTheDocument() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                try {
+                    Random random = new Random(42);
+                    Document document = new PlainDocument();
+                    document.insertString(0, "a\nbc\n\ndef\n", null);
+                    DocumentLineIndex index = DocumentLineIndex.of(document);
+                    Subscription subscription = DocumentEventSource.fromDocumentEditsOf(document).subscribe(index);
+
+                    for (int i = 0; i < 2000; i++) {
+                        int length = document.getLength();
+                        if (length > 0 && random.nextInt(3) == 0) {
+                            int offset = random.nextInt(length);
+                            document.remove(offset, 1 + random.nextInt(Math.min(8, length - offset)));
+                        } else {
+                            document.insertString(random.nextInt(length + 1), randomText(random), null);
+                        }
+                        assertSameLines(document, index);
+                    }
+                    subscription.unsubscribe();
+                } catch (BadLocationException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }).awaitTerminal();
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(6); i >= 0; i--) {
+            sb.append(random.nextInt(3) == 0 ? '\n' : 'x');
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameLines(Document document, DocumentLineIndex index) {
+        Element root = document.getDefaultRootElement();
+        assertEquals(root.getElementCount(), index.getLineCount());
+        for (int line = 0; line < root.getElementCount(); line++) {
+            assertEquals(root.getElement(line).getStartOffset(), index.getLineStartOffset(line));
+        }
+    }
+}
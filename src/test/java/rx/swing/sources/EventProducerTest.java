@@ -0,0 +1,263 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JPanel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+import org.junit.Test;
+
+import rx.Subscriber;
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Action0;
+import rx.observables.SwingObservable;
+import rx.observers.TestSubscriber;
+
+public class EventProducerTest {
+
+    private final JPanel panel = new JPanel();
+
+    @Test
+    public void testEventsAreEmittedAsRequested() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                TestSubscriber<MouseEvent> subscriber = TestSubscriber.create(0);
+                MouseEventSource.fromMouseEventsOf(panel).subscribe(subscriber);
+
+                List<MouseEvent> events = clicks(3);
+                subscriber.assertNoValues();
+
+                subscriber.requestMore(2);
+                subscriber.assertReceivedOnNext(events.subList(0, 2));
+
+                subscriber.requestMore(2);
+                subscriber.assertReceivedOnNext(events);
+
+                MouseEvent event = click(panel);
+                subscriber.assertValueCount(4);
+                assertEquals(event, subscriber.getOnNextEvents().get(3));
+                subscriber.unsubscribe();
+            }
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testTooManyUnrequestedEventsFailTheSubscriber() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                TestSubscriber<MouseEvent> subscriber = TestSubscriber.create(0);
+                MouseEventSource.fromMouseEventsOf(panel).subscribe(subscriber);
+
+                clicks(OverflowStrategy.DEFAULT_CAPACITY);
+                subscriber.assertNoErrors();
+
+                click(panel);
+                subscriber.assertError(MissingBackpressureException.class);
+                assertEquals(0, panel.getMouseListeners().length);
+            }
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testDropOldest() throws Throwable {
+        assertOverflow(OverflowStrategy.DROP_OLDEST, 2, 3);
+    }
+
+    @Test
+    public void testDropNewest() throws Throwable {
+        assertOverflow(OverflowStrategy.DROP_NEWEST, 0, 1);
+    }
+
+    @Test
+    public void testLatest() throws Throwable {
+        assertOverflow(OverflowStrategy.LATEST, 3);
+    }
+
+    private void assertOverflow(final OverflowStrategy strategy, final Integer... expectedIndexes) throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                TestSubscriber<MouseEvent> subscriber = TestSubscriber.create(0);
+                MouseEventSource.fromMouseEventsOf(panel)
+                        .compose(SwingObservable.<MouseEvent> onOverflow(strategy, 2))
+                        .subscribe(subscriber);
+
+                List<MouseEvent> events = clicks(4);
+                subscriber.requestMore(10);
+
+                subscriber.assertNoErrors();
+                subscriber.assertValueCount(expectedIndexes.length);
+                for (int i = 0; i < expectedIndexes.length; i++) {
+                    assertEquals(events.get(expectedIndexes[i]), subscriber.getOnNextEvents().get(i));
+                }
+                subscriber.unsubscribe();
+                assertEquals(0, panel.getMouseListeners().length);
+            }
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testRequestsFromOtherThreadsAreServedOnTheEventDispatchThread() throws Throwable {
+        final TestSubscriber<MouseEvent> subscriber = TestSubscriber.create(0);
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                MouseEventSource.fromMouseEventsOf(panel).subscribe(subscriber);
+                clicks(2);
+            }
+        }).awaitTerminal();
+
+        subscriber.requestMore(1);
+        final Thread[] eventDispatchThread = new Thread[1];
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // the drain was scheduled before
+                eventDispatchThread[0] = Thread.currentThread();
+            }
+        });
+
+        subscriber.assertValueCount(1);
+        assertSame(eventDispatchThread[0], subscriber.getLastSeenThread());
+        subscriber.unsubscribe();
+    }
+
+    @Test
+    public void testEventsFromAnotherThreadAreEmittedInOrderWhileRequestedOnTheEventDispatchThread()
+            throws Throwable {
+        final int edits = 5000;
+        final Document document = new PlainDocument();
+        final OffsetSubscriber subscriber = new OffsetSubscriber();
+        SwingObservable.fromDocumentEvents(document).subscribe(subscriber);
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // subscribed in an earlier event
+            }
+        });
+
+        final Throwable[] failure = new Throwable[1];
+        Thread editor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < edits; i++) {
+                        document.insertString(i, "x", null);
+                        while (i - subscriber.count.get() > OverflowStrategy.DEFAULT_CAPACITY / 2) {
+                            Thread.yield();
+                        }
+                    }
+                } catch (BadLocationException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        editor.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        int requested = 0;
+        while (subscriber.count.get() < edits && subscriber.error == null && System.nanoTime() < deadline) {
+            // few requests at a time, so the editor buffers while the Swing UI thread drains
+            if (requested - subscriber.count.get() < 2) {
+                subscriber.requestOne();
+                requested++;
+            }
+            Thread.yield();
+        }
+        editor.join();
+        subscriber.unsubscribe();
+
+        assertEquals(null, failure[0]);
+        assertEquals(null, subscriber.error);
+        assertTrue("overlapping onNext calls", !subscriber.overlapped);
+        assertEquals(edits, subscriber.offsets.size());
+        for (int i = 0; i < edits; i++) {
+            assertEquals(i, (int) subscriber.offsets.get(i));
+        }
+    }
+
+    private List<MouseEvent> clicks(int count) {
+        MouseEvent[] events = new MouseEvent[count];
+        for (int i = 0; i < count; i++) {
+            events[i] = click(panel);
+        }
+        return Arrays.asList(events);
+    }
+
+    private static MouseEvent click(Component component) {
+        MouseEvent event = new MouseEvent(component, MouseEvent.MOUSE_CLICKED, 1L, 0, 0, 0, 1, false);
+        for (MouseListener listener : component.getMouseListeners()) {
+            listener.mouseClicked(event);
+        }
+        return event;
+    }
+
+    private static final class OffsetSubscriber extends Subscriber<DocumentEvent> {
+        final List<Integer> offsets = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger emitting = new AtomicInteger();
+        volatile boolean overlapped;
+        volatile Throwable error;
+
+        @Override
+        public void onStart() {
+            request(0);
+        }
+
+        void requestOne() {
+            request(1);
+        }
+
+        @Override
+        public void onNext(DocumentEvent event) {
+            if (emitting.incrementAndGet() != 1) {
+                overlapped = true;
+            }
+            offsets.add(event.getOffset());
+            count.incrementAndGet();
+            emitting.decrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+        }
+
+        @Override
+        public void onCompleted() {
+            // document events never complete
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package rx.swing.sources;
 
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -27,8 +29,10 @@ import javax.swing.JPanel;
 import java.awt.Component;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Test;
@@ -38,6 +42,7 @@ import org.mockito.Matchers;
 import rx.Subscription;
 import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.observers.TestSubscriber;
 
 public class KeyEventSourceTest {
     private Component comp = new JPanel();
@@ -135,6 +140,58 @@ public class KeyEventSourceTest {
         }).awaitTerminal();
     }
 
+    @Test
+    public void testObservingPressedKeyCodes() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                TestSubscriber<PressedKeys> subscriber = new TestSubscriber<PressedKeys>();
+                KeyEventSource.pressedKeyCodesOf(comp).subscribe(subscriber);
+                subscriber.assertValue(PressedKeys.NONE);
+
+                fireKeyEvent(keyEvent(KeyEvent.VK_SHIFT, KeyEvent.KEY_PRESSED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_A, KeyEvent.KEY_PRESSED));
+                // auto-repeat and typed keys do not change the pressed keys
+                fireKeyEvent(keyEvent(KeyEvent.VK_A, KeyEvent.KEY_PRESSED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_UNDEFINED, KeyEvent.KEY_TYPED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_F13, KeyEvent.KEY_PRESSED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_B, KeyEvent.KEY_RELEASED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_F13, KeyEvent.KEY_RELEASED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_SHIFT, KeyEvent.KEY_RELEASED));
+                fireKeyEvent(keyEvent(KeyEvent.VK_A, KeyEvent.KEY_RELEASED));
+
+                subscriber.assertNoErrors();
+                List<PressedKeys> snapshots = subscriber.getOnNextEvents();
+                assertEquals(asList(
+                        asList(),
+                        asList(KeyEvent.VK_SHIFT),
+                        asList(KeyEvent.VK_SHIFT, KeyEvent.VK_A),
+                        asList(KeyEvent.VK_SHIFT, KeyEvent.VK_A, KeyEvent.VK_F13),
+                        asList(KeyEvent.VK_SHIFT, KeyEvent.VK_A),
+                        asList(KeyEvent.VK_A),
+                        asList()), keyCodes(snapshots));
+                assertEquals(PressedKeys.NONE, snapshots.get(snapshots.size() - 1));
+                assertTrue(snapshots.get(2).contains(KeyEvent.VK_A));
+
+                subscriber.unsubscribe();
+            }
+
+        }).awaitTerminal();
+    }
+
+    private static List<List<Integer>> keyCodes(List<PressedKeys> snapshots) {
+        List<List<Integer>> result = new ArrayList<List<Integer>>();
+        for (PressedKeys snapshot : snapshots) {
+            List<Integer> keyCodes = new ArrayList<Integer>();
+            for (Integer keyCode : snapshot) {
+                keyCodes.add(keyCode);
+            }
+            result.add(keyCodes);
+        }
+        return result;
+    }
+
     private KeyEvent keyEvent(int keyCode, int id) {
         return new KeyEvent(comp, id, -1L, 0, keyCode, ' ');
     }
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.EventQueue;
+
+import javax.swing.JPanel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import rx.observables.SwingObservable;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+public class LifecycleBindingTest {
+
+    private final JPanel parent = new JPanel();
+    private final JPanel panel = new JPanel();
+    private final PublishSubject<String> upstream = PublishSubject.create();
+    private final TestSubscriber<String> subscriber = TestSubscriber.create();
+
+    @Before
+    public void setUp() {
+        parent.add(panel);
+    }
+
+    @Test
+    public void testCompletesWhenTheComponentBecomesUndisplayable() throws Exception {
+        bind(LifecycleBinding.UNTIL_UNDISPLAYABLE);
+        // a component that is not displayable yet is not done
+        setDisplayable(true);
+        subscriber.assertNotCompleted();
+
+        setVisible(false);
+        subscriber.assertNotCompleted();
+
+        setDisplayable(false);
+        subscriber.assertCompleted();
+        assertFalse(upstream.hasObservers());
+    }
+
+    @Test
+    public void testCompletesWhenTheComponentStopsShowing() throws Exception {
+        setDisplayable(true);
+        bind(LifecycleBinding.UNTIL_HIDDEN);
+        upstream.onNext("shown");
+
+        setVisible(false);
+
+        subscriber.assertValue("shown");
+        subscriber.assertCompleted();
+        assertFalse(upstream.hasObservers());
+    }
+
+    @Test
+    public void testPausesWhileTheComponentIsNotShowing() throws Exception {
+        bind(LifecycleBinding.PAUSE_WHILE_HIDDEN);
+        assertFalse(upstream.hasObservers());
+
+        setDisplayable(true);
+        assertTrue(upstream.hasObservers());
+
+        setVisible(false);
+        assertFalse(upstream.hasObservers());
+
+        setVisible(true);
+        assertTrue(upstream.hasObservers());
+        upstream.onNext("shown again");
+
+        setDisplayable(false);
+        subscriber.assertValue("shown again");
+        subscriber.assertCompleted();
+        assertFalse(upstream.hasObservers());
+    }
+
+    @Test
+    public void testBindToLifecycleCompletesWhenTheComponentBecomesUndisplayable() throws Exception {
+        setDisplayable(true);
+        upstream.compose(SwingObservable.<String> bindToLifecycle(panel)).subscribe(subscriber);
+        awaitTurn();
+
+        setDisplayable(false);
+
+        subscriber.assertCompleted();
+    }
+
+    private void bind(LifecycleBinding binding) throws Exception {
+        upstream.compose(binding.<String> bind(panel)).subscribe(subscriber);
+        awaitTurn();
+    }
+
+    private void setDisplayable(final boolean displayable) throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                if (displayable) {
+                    parent.addNotify();
+                } else {
+                    parent.removeNotify();
+                }
+            }
+        });
+    }
+
+    private void setVisible(final boolean visible) throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                panel.setVisible(visible);
+            }
+        });
+    }
+
+    private static void awaitTurn() throws Exception {
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // the subscription was made in an earlier event
+            }
+        });
+    }
+}
@@ -15,6 +15,8 @@
  */
 package rx.swing.sources;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -22,8 +24,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.awt.Component;
+import java.awt.EventQueue;
 import java.awt.Point;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 import javax.swing.JPanel;
@@ -35,6 +41,7 @@ import org.mockito.Matchers;
 import rx.Subscription;
 import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.observers.TestSubscriber;
 
 public class MouseEventSourceTest {
     private Component comp = new JPanel();
@@ -79,6 +86,141 @@ public class MouseEventSourceTest {
         }).awaitTerminal();
     }
 
+    @Test
+    public void testRelativeMouseMotionRegistersASingleListener() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                int listeners = comp.getMouseMotionListeners().length;
+                Subscription sub = MouseEventSource.fromRelativeMouseMotion(comp).subscribe();
+                assertEquals(listeners + 1, comp.getMouseMotionListeners().length);
+
+                sub.unsubscribe();
+                assertEquals(listeners, comp.getMouseMotionListeners().length);
+            }
+
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testRelativeMouseMotionReusingTheDelta() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                final List<Point> deltas = new ArrayList<Point>();
+                final List<Point> copies = new ArrayList<Point>();
+                Subscription sub = MouseEventSource.fromRelativeMouseMotion(comp, true).subscribe(new Action1<Point>() {
+                    @Override
+                    public void call(Point delta) {
+                        deltas.add(delta);
+                        copies.add(new Point(delta));
+                    }
+                });
+
+                fireMouseMotionEvent(mouseEvent(0, 0, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(10, -5, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(6, 10, MouseEvent.MOUSE_MOVED));
+                sub.unsubscribe();
+
+                assertEquals(Arrays.asList(new Point(10, -5), new Point(-4, 15)), copies);
+                assertSame(deltas.get(0), deltas.get(1));
+            }
+
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testRelativeMouseMotionHonoursRequests() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                TestSubscriber<Point> subscriber = TestSubscriber.create(1);
+                Subscription sub = MouseEventSource.fromRelativeMouseMotion(comp).subscribe(subscriber);
+
+                fireMouseMotionEvent(mouseEvent(0, 0, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(3, 4, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(5, 5, MouseEvent.MOUSE_MOVED));
+                subscriber.assertValue(new Point(3, 4));
+
+                subscriber.requestMore(1);
+                subscriber.assertValues(new Point(3, 4), new Point(2, 1));
+                sub.unsubscribe();
+                subscriber.assertNoErrors();
+            }
+
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testCoalescedMouseMotionHonoursRequests() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                TestSubscriber<CoalescedMouseEvent> subscriber = TestSubscriber.create(0);
+                MouseEventSource.fromMouseMotionEventsOf(comp, CoalescingPolicy.WHEN_BACKPRESSURED).subscribe(subscriber);
+
+                fireMouseMotionEvent(mouseEvent(1, 1, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(2, 2, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(3, 4, MouseEvent.MOUSE_MOVED));
+                subscriber.assertNoValues();
+
+                subscriber.requestMore(2);
+                assertCoalesced(subscriber.getOnNextEvents().get(0), 3, 4, 3);
+
+                fireMouseMotionEvent(mouseEvent(5, 6, MouseEvent.MOUSE_MOVED));
+                assertCoalesced(subscriber.getOnNextEvents().get(1), 5, 6, 1);
+
+                fireMouseMotionEvent(mouseEvent(7, 8, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(9, 10, MouseEvent.MOUSE_MOVED));
+                subscriber.assertValueCount(2);
+
+                subscriber.requestMore(1);
+                assertCoalesced(subscriber.getOnNextEvents().get(2), 9, 10, 2);
+
+                subscriber.unsubscribe();
+                subscriber.assertNoErrors();
+            }
+
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testCoalescedMouseMotionPerEventDispatchThreadTurn() throws Throwable {
+        final TestSubscriber<CoalescedMouseEvent> subscriber = TestSubscriber.create();
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+
+            @Override
+            public void call() {
+                MouseEventSource.fromMouseMotionEventsOf(comp, CoalescingPolicy.PER_EDT_TURN).subscribe(subscriber);
+
+                fireMouseMotionEvent(mouseEvent(1, 1, MouseEvent.MOUSE_MOVED));
+                fireMouseMotionEvent(mouseEvent(2, 3, MouseEvent.MOUSE_MOVED));
+                subscriber.assertNoValues();
+            }
+
+        }).awaitTerminal();
+        EventQueue.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // the turn in which the events were coalesced has ended
+            }
+        });
+
+        subscriber.assertValueCount(1);
+        assertCoalesced(subscriber.getOnNextEvents().get(0), 2, 3, 2);
+        subscriber.unsubscribe();
+    }
+
+    private static void assertCoalesced(CoalescedMouseEvent event, int x, int y, int count) {
+        assertEquals(x, event.getX());
+        assertEquals(y, event.getY());
+        assertEquals(count, event.getCount());
+    }
+
     @Test
     public void testMouseEvents() throws Throwable {
         SwingTestHelper.create().runInEventDispatchThread(new Action0() {
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PressedKeysTest {
+
+    @Test
+    public void testContains() {
+        PressedKeys keys = PressedKeys.of(bits(0, 63, 64, 200));
+        assertTrue(keys.contains(0));
+        assertTrue(keys.contains(63));
+        assertTrue(keys.contains(64));
+        assertTrue(keys.contains(200));
+        assertFalse(keys.contains(1));
+        assertFalse(keys.contains(-1));
+        assertFalse(keys.contains(100000));
+        assertEquals(4, keys.size());
+    }
+
+    @Test
+    public void testIteratesInAscendingOrder() {
+        List<Integer> keyCodes = new ArrayList<Integer>();
+        for (Integer keyCode : PressedKeys.of(bits(200, 5, 64, 63))) {
+            keyCodes.add(keyCode);
+        }
+        assertEquals(Arrays.asList(5, 63, 64, 200), keyCodes);
+        assertEquals(-1, PressedKeys.of(bits(5)).nextPressedKey(6));
+        assertEquals(64, PressedKeys.of(bits(5, 64)).nextPressedKey(6));
+    }
+
+    @Test
+    public void testEqualityIgnoresTrailingEmptyWords() {
+        long[] bits = bits(1, 2);
+        long[] longer = Arrays.copyOf(bits, 10);
+        assertEquals(PressedKeys.of(bits), PressedKeys.of(longer));
+        assertEquals(PressedKeys.of(bits).hashCode(), PressedKeys.of(longer).hashCode());
+        assertNotEquals(PressedKeys.of(bits), PressedKeys.of(bits(1)));
+        assertSame(PressedKeys.NONE, PressedKeys.of(new long[3]));
+        assertEquals("[1, 2]", PressedKeys.of(bits).toString());
+    }
+
+    @Test
+    public void testSnapshotDoesNotChangeWithTheBitset() {
+        long[] bits = bits(1);
+        PressedKeys keys = PressedKeys.of(bits);
+        bits[0] = 0;
+        assertTrue(keys.contains(1));
+    }
+
+    private static long[] bits(int... keyCodes) {
+        long[] bits = new long[4];
+        for (int keyCode : keyCodes) {
+            bits[keyCode >> 6] |= 1L << keyCode;
+        }
+        return bits;
+    }
+}
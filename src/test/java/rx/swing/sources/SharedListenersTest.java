@@ -0,0 +1,170 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package rx.swing.sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Component;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.junit.Test;
+
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.observers.TestSubscriber;
+
+public class SharedListenersTest {
+
+    @Test
+    public void testSubscribersShareOneListener() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                JPanel panel = new JPanel();
+                TestSubscriber<MouseEvent> first = new TestSubscriber<MouseEvent>();
+                TestSubscriber<MouseEvent> second = new TestSubscriber<MouseEvent>();
+                TestSubscriber<MouseEvent> third = new TestSubscriber<MouseEvent>();
+
+                Subscription firstSubscription = MouseEventSource.fromMouseEventsOf(panel).subscribe(first);
+                Subscription secondSubscription = MouseEventSource.fromMouseEventsOf(panel).subscribe(second);
+                Subscription thirdSubscription = MouseEventSource.fromMouseEventsOf(panel).subscribe(third);
+                assertEquals(1, panel.getMouseListeners().length);
+                assertEquals(1, SharedListeners.sharedListenerCount(panel));
+
+                MouseEvent event = click(panel);
+                first.assertValue(event);
+                second.assertValue(event);
+                third.assertValue(event);
+
+                secondSubscription.unsubscribe();
+                firstSubscription.unsubscribe();
+                assertEquals(1, panel.getMouseListeners().length);
+                click(panel);
+                first.assertValueCount(1);
+                second.assertValueCount(1);
+                third.assertValueCount(2);
+
+                thirdSubscription.unsubscribe();
+                assertEquals(0, panel.getMouseListeners().length);
+                assertEquals(0, SharedListeners.sharedListenerCount(panel));
+            }
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testSubscribingDuringDispatchDoesNotReceiveTheCurrentEvent() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                final JPanel panel = new JPanel();
+                final TestSubscriber<MouseEvent> late = new TestSubscriber<MouseEvent>();
+
+                MouseEventSource.fromMouseEventsOf(panel).first().subscribe(new Action1<MouseEvent>() {
+                    @Override
+                    public void call(MouseEvent event) {
+                        MouseEventSource.fromMouseEventsOf(panel).subscribe(late);
+                    }
+                });
+                click(panel);
+                late.assertNoValues();
+
+                MouseEvent event = click(panel);
+                late.assertValue(event);
+                late.unsubscribe();
+                assertEquals(0, panel.getMouseListeners().length);
+            }
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testEqualButDistinctSourcesGetTheirOwnListener() throws Throwable {
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                JPanel panel = new EqualPanel();
+                JPanel otherPanel = new EqualPanel();
+                TestSubscriber<MouseEvent> subscriber = new TestSubscriber<MouseEvent>();
+                TestSubscriber<MouseEvent> otherSubscriber = new TestSubscriber<MouseEvent>();
+
+                MouseEventSource.fromMouseEventsOf(panel).subscribe(subscriber);
+                MouseEventSource.fromMouseEventsOf(otherPanel).subscribe(otherSubscriber);
+                assertEquals(1, panel.getMouseListeners().length);
+                assertEquals(1, otherPanel.getMouseListeners().length);
+
+                MouseEvent event = click(otherPanel);
+                subscriber.assertNoValues();
+                otherSubscriber.assertValue(event);
+
+                otherSubscriber.unsubscribe();
+                assertEquals(1, panel.getMouseListeners().length);
+                assertEquals(0, otherPanel.getMouseListeners().length);
+                subscriber.unsubscribe();
+                assertEquals(0, panel.getMouseListeners().length);
+            }
+        }).awaitTerminal();
+    }
+
+    @Test
+    public void testSourcesThatAreStillSubscribedCanBeCollected() throws Throwable {
+        WeakReference<Component> panel = subscribeAndForget();
+
+        for (int i = 0; i < 50 && panel.get() != null; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertNull(panel.get());
+    }
+
+    private static WeakReference<Component> subscribeAndForget() throws Throwable {
+        final JPanel panel = new JPanel();
+        SwingTestHelper.create().runInEventDispatchThread(new Action0() {
+            @Override
+            public void call() {
+                MouseEventSource.fromMouseEventsOf(panel).subscribe(new TestSubscriber<MouseEvent>());
+                assertEquals(1, SharedListeners.sharedListenerCount(panel));
+            }
+        }).awaitTerminal();
+        return new WeakReference<Component>(panel);
+    }
+
+    private static MouseEvent click(Component component) {
+        MouseEvent event = new MouseEvent(component, MouseEvent.MOUSE_CLICKED, 1L, 0, 0, 0, 1, false);
+        for (MouseListener listener : component.getMouseListeners()) {
+            listener.mouseClicked(event);
+        }
+        return event;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class EqualPanel extends JPanel {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EqualPanel;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+}